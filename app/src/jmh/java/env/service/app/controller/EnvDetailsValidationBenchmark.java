@@ -0,0 +1,62 @@
+package env.service.app.controller;
+
+import env.service.app.model.EnvDetails;
+import env.service.app.model.EnvDetailsBatchStatus;
+import env.service.app.util.BenchmarkData;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * In memory validation of created documents. Uniqueness of name against existing documents is
+ * enforced by the unique index in MongoDB, so it does not depend on the size of the collection;
+ * create latency by collection size is measured by the load test with --documents.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnvDetailsValidationBenchmark {
+
+  private static final String APP_NAME = "benchmark";
+
+  @Param({"10", "100", "1000", "10000"})
+  private int batchSize;
+
+  private EnvDetails envDetails;
+  private List<EnvDetails> envDetailsList;
+
+  @Setup
+  public void setup() {
+    envDetailsList = new ArrayList<>(BenchmarkData.getEnvDetailsList(batchSize, 1));
+    envDetails = envDetailsList.getFirst();
+    // one in ten documents repeats the name of the previous one
+    for (int i = 10; i < batchSize; i += 10) {
+      envDetailsList.get(i).setName(envDetailsList.get(i - 1).getName());
+    }
+  }
+
+  @Benchmark
+  public boolean validateEnvDetails() {
+    return EnvDetailsController.isValidEnvDetails(APP_NAME, envDetails);
+  }
+
+  @Benchmark
+  public List<Integer> validateEnvDetailsBatch() {
+    return EnvDetailsController.validateEnvDetailsBatch(
+        APP_NAME, envDetailsList, new EnvDetailsBatchStatus.Status[batchSize]);
+  }
+}
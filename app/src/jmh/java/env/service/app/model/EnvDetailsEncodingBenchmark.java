@@ -0,0 +1,130 @@
+package env.service.app.model;
+
+import env.service.app.service.EnvDetailsEncodingService;
+import env.service.app.util.BenchmarkData;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.core.JsonParser;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.deser.std.StdDeserializer;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.module.SimpleModule;
+import tools.jackson.databind.ser.std.ToStringSerializer;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+/**
+ * Read responses of app configs encoded as JSON, Smile and CBOR, with and without gzip. The encoded
+ * sizes are printed once per trial, the times are of encoding and decoding, and of getting the
+ * response already encoded by {@link EnvDetailsEncodingService} as hot reads do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnvDetailsEncodingBenchmark {
+
+  @Param({"json", "smile", "cbor"})
+  private String format;
+
+  @Param({"10", "100", "1000"})
+  private int documents;
+
+  private ObjectMapper objectMapper;
+  private EnvDetailsResponse envDetailsResponse;
+  private byte[] envDetailsResponseBytes;
+  private EnvDetailsEncodingService envDetailsEncodingService;
+  private AppEnvDetails appEnvDetails;
+  private MediaType mediaType;
+
+  @Setup
+  public void setup() throws IOException {
+    // ids as hex strings, so the responses can be decoded again
+    final SimpleModule objectIdModule =
+        new SimpleModule()
+            .addSerializer(ObjectId.class, ToStringSerializer.instance)
+            .addDeserializer(
+                ObjectId.class,
+                new StdDeserializer<>(ObjectId.class) {
+                  @Override
+                  public ObjectId deserialize(
+                      final JsonParser jsonParser,
+                      final DeserializationContext deserializationContext) {
+                    return new ObjectId(jsonParser.getValueAsString());
+                  }
+                });
+    objectMapper =
+        switch (format) {
+          case "smile" -> SmileMapper.builder().addModule(objectIdModule).build();
+          case "cbor" -> CBORMapper.builder().addModule(objectIdModule).build();
+          default -> JsonMapper.builder().addModule(objectIdModule).build();
+        };
+    mediaType =
+        switch (format) {
+          case "smile" -> EnvDetailsEncodingService.APPLICATION_SMILE;
+          case "cbor" -> MediaType.APPLICATION_CBOR;
+          default -> MediaType.APPLICATION_JSON;
+        };
+    envDetailsResponse =
+        EnvDetailsResponse.builder()
+            .envDetails(BenchmarkData.getAppConfigEnvDetailsList(documents))
+            .build();
+    envDetailsResponseBytes = objectMapper.writeValueAsBytes(envDetailsResponse);
+    envDetailsEncodingService =
+        new EnvDetailsEncodingService(
+            JsonMapper.builder().addModule(objectIdModule).build(), true, DataSize.ofKilobytes(2));
+    appEnvDetails = new AppEnvDetails(envDetailsResponse.getEnvDetails(), "version");
+    System.out.printf(
+        "%nEncoded Size: format=%s documents=%d bytes=%d gzipBytes=%d%n",
+        format, documents, envDetailsResponseBytes.length, serializeGzip().length);
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    return objectMapper.writeValueAsBytes(envDetailsResponse);
+  }
+
+  @Benchmark
+  public byte[] serializeGzip() throws IOException {
+    final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    try (OutputStream outputStream = new GZIPOutputStream(byteArrayOutputStream)) {
+      objectMapper.writeValue(outputStream, envDetailsResponse);
+    }
+    return byteArrayOutputStream.toByteArray();
+  }
+
+  @Benchmark
+  public EncodedEnvDetailsResponse encodedResponse() {
+    return envDetailsEncodingService.getEncodedResponse(appEnvDetails, mediaType, false);
+  }
+
+  @Benchmark
+  public EncodedEnvDetailsResponse encodedResponseGzip() {
+    return envDetailsEncodingService.getEncodedResponse(appEnvDetails, mediaType, true);
+  }
+
+  @Benchmark
+  public EnvDetailsResponse deserialize() {
+    return objectMapper.readValue(envDetailsResponseBytes, EnvDetailsResponse.class);
+  }
+}
@@ -0,0 +1,62 @@
+package env.service.app.model;
+
+import env.service.app.util.BenchmarkData;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+/** JSON serialization of read responses by number of documents and size of their values. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnvDetailsSerializationBenchmark {
+
+  @Param({"1", "100", "1000"})
+  private int documents;
+
+  @Param({"1", "10", "100"})
+  private int valuesSize;
+
+  private final JsonMapper jsonMapper = JsonMapper.builder().build();
+  private EnvDetailsResponse envDetailsResponse;
+  private EnvDetails envDetails;
+  private byte[] envDetailsResponseBytes;
+
+  @Setup
+  public void setup() {
+    envDetailsResponse =
+        EnvDetailsResponse.builder()
+            .envDetails(BenchmarkData.getEnvDetailsList(documents, valuesSize))
+            .build();
+    envDetails = envDetailsResponse.getEnvDetails().getFirst();
+    envDetailsResponseBytes = jsonMapper.writeValueAsBytes(envDetailsResponse);
+  }
+
+  @Benchmark
+  public byte[] serializeEnvDetails() {
+    return jsonMapper.writeValueAsBytes(envDetails);
+  }
+
+  @Benchmark
+  public byte[] serializeEnvDetailsResponse() {
+    return jsonMapper.writeValueAsBytes(envDetailsResponse);
+  }
+
+  @Benchmark
+  public EnvDetailsResponse deserializeEnvDetailsResponse() {
+    return jsonMapper.readValue(envDetailsResponseBytes, EnvDetailsResponse.class);
+  }
+}
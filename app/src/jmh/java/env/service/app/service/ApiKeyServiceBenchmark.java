@@ -0,0 +1,52 @@
+package env.service.app.service;
+
+import env.service.app.config.ApiKeyAuthentication;
+import env.service.app.config.EnvServiceProperties;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/** API key verification with and without the cache of verified keys. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApiKeyServiceBenchmark {
+
+  private static final String CLIENT_ID = "benchmark";
+  private static final String SECRET = "benchmark_secret";
+  private static final String API_KEY = CLIENT_ID + "." + SECRET;
+
+  private ApiKeyService apiKeyService;
+
+  @Setup
+  public void setup() {
+    final EnvServiceProperties.ApiKeys.Client client = new EnvServiceProperties.ApiKeys.Client();
+    client.setSecretHash("{bcrypt}" + new BCryptPasswordEncoder().encode(SECRET));
+    final EnvServiceProperties envServiceProperties = new EnvServiceProperties();
+    envServiceProperties.getApiKeys().getClients().put(CLIENT_ID, client);
+    apiKeyService = new ApiKeyService(envServiceProperties);
+  }
+
+  @Benchmark
+  public ApiKeyAuthentication authenticateCached() {
+    return apiKeyService.authenticate(API_KEY);
+  }
+
+  @Benchmark
+  public ApiKeyAuthentication authenticateUncached() {
+    apiKeyService.invalidate();
+    return apiKeyService.authenticate(API_KEY);
+  }
+}
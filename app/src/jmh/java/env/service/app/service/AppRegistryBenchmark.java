@@ -0,0 +1,66 @@
+package env.service.app.service;
+
+import env.service.app.util.BenchmarkData;
+import env.service.app.util.CommonUtils;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** App names for GET /appNames, parsed from collection names and served from the registry. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AppRegistryBenchmark {
+
+  @Param({"10", "100", "1000", "10000"})
+  private int collections;
+
+  private List<String> collectionNames;
+  private AppRegistryService appRegistryService;
+
+  @Setup
+  public void setup() {
+    collectionNames = BenchmarkData.getAppCollectionNames(collections);
+    final InMemoryMongoTemplate mongoTemplate = new InMemoryMongoTemplate();
+    collectionNames.forEach(
+        collectionName -> mongoTemplate.putCollection(collectionName, List.of()));
+    appRegistryService = new AppRegistryService(mongoTemplate.toEnvDetailsStore());
+    appRegistryService.refresh();
+  }
+
+  @Benchmark
+  public void parseAppNames(final Blackhole blackhole) {
+    for (String collectionName : collectionNames) {
+      blackhole.consume(CommonUtils.getAppName(collectionName));
+    }
+  }
+
+  @Benchmark
+  public void refreshAppNames() {
+    appRegistryService.refresh();
+  }
+
+  @Benchmark
+  public List<String> getAppNames() {
+    return appRegistryService.getAppNames(null);
+  }
+
+  @Benchmark
+  public List<String> getAppNamesByPrefix() {
+    return appRegistryService.getAppNames("app_name_1");
+  }
+}
@@ -0,0 +1,71 @@
+package env.service.app.service;
+
+import static env.service.app.util.ConstantUtils.CACHE_ENV_DETAILS;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import env.service.app.model.AppEnvDetails;
+import env.service.app.util.BenchmarkData;
+import env.service.app.util.CommonUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.NoOpCacheManager;
+
+/**
+ * Read cache of GET /{appName}. A miss loads the documents and computes their version, which is
+ * what a read without the cache would cost on top of the MongoDB query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnvDetailsCacheBenchmark {
+
+  private static final String APP_NAME = "benchmark";
+
+  @Param({"10", "100", "1000"})
+  private int documents;
+
+  private EnvDetailsCacheService envDetailsCacheService;
+  private CaffeineCache caffeineCache;
+  private AppEnvDetails appEnvDetails;
+
+  @Setup
+  public void setup() {
+    final InMemoryMongoTemplate mongoTemplate = new InMemoryMongoTemplate();
+    mongoTemplate.putCollection(
+        CommonUtils.getAppCollectionName(APP_NAME), BenchmarkData.getEnvDetailsList(documents, 10));
+    envDetailsCacheService =
+        new EnvDetailsCacheService(mongoTemplate.toEnvDetailsStore(), new NoOpCacheManager());
+    caffeineCache = new CaffeineCache(CACHE_ENV_DETAILS, Caffeine.newBuilder().build());
+    appEnvDetails = envDetailsCacheService.findAll(APP_NAME);
+    caffeineCache.put(APP_NAME, appEnvDetails);
+  }
+
+  @Benchmark
+  public AppEnvDetails cacheHit() {
+    return caffeineCache.get(APP_NAME, () -> envDetailsCacheService.findAll(APP_NAME));
+  }
+
+  @Benchmark
+  public AppEnvDetails cacheMiss() {
+    return envDetailsCacheService.findAll(APP_NAME);
+  }
+
+  @Benchmark
+  public String getEnvDetailsVersion() {
+    return CommonUtils.getEnvDetailsVersion(appEnvDetails.envDetails());
+  }
+}
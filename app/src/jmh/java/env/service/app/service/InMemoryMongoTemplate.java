@@ -0,0 +1,76 @@
+package env.service.app.service;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoDatabase;
+import env.service.app.config.EnvServiceProperties;
+import env.service.app.model.EnvDetails;
+import env.service.app.store.EnvDetailsStore;
+import env.service.app.store.MongoEnvDetailsStore;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.dao.support.PersistenceExceptionTranslator;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/** MongoTemplate serving documents from memory, so benchmarks measure only the code around it. */
+class InMemoryMongoTemplate extends MongoTemplate {
+
+  private final Map<String, List<EnvDetails>> collections = new ConcurrentHashMap<>();
+
+  InMemoryMongoTemplate() {
+    super(new NoDatabaseFactory());
+  }
+
+  void putCollection(final String collectionName, final List<EnvDetails> envDetailsList) {
+    collections.put(collectionName, List.copyOf(envDetailsList));
+  }
+
+  // the Mongo store as the app uses it, reading from this template
+  EnvDetailsStore toEnvDetailsStore() {
+    return new MongoEnvDetailsStore(
+        this, new EnvDetailsIndexService(this), new EnvServiceProperties());
+  }
+
+  @Override
+  public Set<String> getCollectionNames() {
+    return Set.copyOf(collections.keySet());
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> List<T> findAll(final Class<T> entityClass, final String collectionName) {
+    return (List<T>) collections.getOrDefault(collectionName, List.of());
+  }
+
+  private static class NoDatabaseFactory implements MongoDatabaseFactory {
+
+    @Override
+    public MongoDatabase getMongoDatabase() {
+      throw new UnsupportedOperationException("No Database In Benchmarks");
+    }
+
+    @Override
+    public MongoDatabase getMongoDatabase(final String dbName) {
+      throw new UnsupportedOperationException("No Database In Benchmarks");
+    }
+
+    @Override
+    public PersistenceExceptionTranslator getExceptionTranslator() {
+      return new MongoExceptionTranslator();
+    }
+
+    @Override
+    public ClientSession getSession(final ClientSessionOptions options) {
+      throw new UnsupportedOperationException("No Database In Benchmarks");
+    }
+
+    @Override
+    public MongoDatabaseFactory withSession(final ClientSession session) {
+      return this;
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package env.service.app.util;
+
+import env.service.app.model.EnvDetails;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class BenchmarkData {
+
+  /** Documents with a string value and valuesSize entries in each of list value and map value. */
+  public static List<EnvDetails> getEnvDetailsList(final int documents, final int valuesSize) {
+    final List<EnvDetails> envDetailsList = new ArrayList<>(documents);
+    for (int i = 0; i < documents; i++) {
+      final Map<String, String> mapValue = new LinkedHashMap<>();
+      IntStream.range(0, valuesSize).forEach(j -> mapValue.put("key_" + j, "map_value_" + j));
+      envDetailsList.add(
+          EnvDetails.builder()
+              .id(new ObjectId())
+              .name("env_details_name_" + i)
+              .stringValue("string_value_" + i)
+              .listValue(IntStream.range(0, valuesSize).mapToObj(j -> "list_value_" + j).toList())
+              .mapValue(mapValue)
+              .version(1L)
+              .build());
+    }
+    return envDetailsList;
+  }
+
+  /**
+   * Documents shaped like the config of an app: mostly urls, flags and numbers as string values,
+   * some lists of hosts and a few maps of 20 to 200 entries, the same for the same arguments.
+   */
+  public static List<EnvDetails> getAppConfigEnvDetailsList(final int documents) {
+    final Random random = new Random(documents);
+    final List<EnvDetails> envDetailsList = new ArrayList<>(documents);
+    for (int i = 0; i < documents; i++) {
+      final EnvDetails.EnvDetailsBuilder builder =
+          EnvDetails.builder().id(new ObjectId()).name("service.config.entry_" + i).version(1L);
+      final int shape = random.nextInt(10);
+      if (shape < 7) {
+        builder.stringValue(
+            switch (random.nextInt(3)) {
+              case 0 -> "https://service-" + random.nextInt(50) + ".internal.example.com/api/v1";
+              case 1 -> String.valueOf(random.nextBoolean());
+              default -> String.valueOf(random.nextInt(100_000));
+            });
+      } else if (shape < 9) {
+        builder.listValue(
+            IntStream.range(0, 5 + random.nextInt(16))
+                .mapToObj(j -> "host-" + random.nextInt(1000) + ".internal.example.com:8080")
+                .toList());
+      } else {
+        final Map<String, String> mapValue = new LinkedHashMap<>();
+        IntStream.range(0, 20 + random.nextInt(181))
+            .forEach(
+                j ->
+                    mapValue.put(
+                        "feature_flag_" + j,
+                        random.nextBoolean() ? "enabled" : "rollout:" + random.nextInt(100)));
+        builder.mapValue(mapValue);
+      }
+      envDetailsList.add(builder.build());
+    }
+    return envDetailsList;
+  }
+
+  public static List<String> getAppCollectionNames(final int collections) {
+    return IntStream.range(0, collections)
+        .mapToObj(i -> CommonUtils.getAppCollectionName("app_name_" + i))
+        .toList();
+  }
+}
@@ -0,0 +1,387 @@
+package env.service.app.loadtest;
+
+import static env.service.app.util.CommonUtils.getSystemEnvProperty;
+
+import env.service.app.util.ConstantUtils;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Drives /api/v1/{appName} with a mix of reads and writes from concurrent clients on virtual
+ * threads, and reports throughput and latency percentiles per operation. Options are given as
+ * --name=value, see {@link Options} for names and defaults. documents can list several numbers of
+ * documents per app, eg: --mix=create=1 --documents=100,10000 for create latency as collections
+ * grow, each is seeded into its own apps and measured in turn.
+ */
+@Slf4j
+public class LoadGenerator {
+
+  private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+  private static final int SEED_BATCH_SIZE = 1000;
+
+  enum Operation {
+    READ,
+    READ_BY_NAME,
+    UPDATE,
+    CREATE,
+    DELETE
+  }
+
+  record Options(
+      String baseUrl,
+      String username,
+      String password,
+      int apps,
+      List<Integer> documents,
+      int concurrency,
+      Duration warmup,
+      Duration duration,
+      Map<Operation, Integer> mix,
+      Long serverPid,
+      Path outputDir) {
+
+    static Options parse(final String[] args) {
+      final Map<String, String> values = new HashMap<>();
+      for (String arg : args) {
+        final int separatorIndex = arg.indexOf('=');
+        if (!arg.startsWith("--") || separatorIndex < 0) {
+          throw new IllegalArgumentException("Options are given as --name=value: " + arg);
+        }
+        values.put(arg.substring(2, separatorIndex), arg.substring(separatorIndex + 1));
+      }
+
+      final Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+      for (String weight :
+          values
+              .getOrDefault("mix", "read=80,readByName=10,update=8,create=1,delete=1")
+              .split(",")) {
+        final String[] nameAndWeight = weight.split("=");
+        mix.put(
+            Operation.valueOf(
+                nameAndWeight[0].trim().replaceAll("([a-z])([A-Z])", "$1_$2").toUpperCase()),
+            Integer.parseInt(nameAndWeight[1].trim()));
+      }
+
+      return new Options(
+          values.getOrDefault("baseUrl", "http://localhost:8002/envsvc"),
+          values.getOrDefault("username", getSystemEnvProperty(ConstantUtils.AUTH_USR, "loadtest")),
+          values.getOrDefault("password", getSystemEnvProperty(ConstantUtils.AUTH_PWD, "loadtest")),
+          Integer.parseInt(values.getOrDefault("apps", "10")),
+          Arrays.stream(values.getOrDefault("documents", "20").split(","))
+              .map(documents -> Integer.parseInt(documents.trim()))
+              .toList(),
+          Integer.parseInt(values.getOrDefault("concurrency", "100")),
+          Duration.parse(values.getOrDefault("warmup", "PT10S")),
+          Duration.parse(values.getOrDefault("duration", "PT30S")),
+          mix,
+          values.containsKey("serverPid") ? Long.parseLong(values.get("serverPid")) : null,
+          Path.of(values.getOrDefault("outputDir", "build/loadtest")));
+    }
+  }
+
+  private final Options options;
+  private final HttpClient httpClient;
+  private final String authorization;
+  private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+  private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+  // names created by CREATE and not yet deleted by DELETE, per app index
+  private final List<ConcurrentLinkedQueue<String>> createdNames = new ArrayList<>();
+  private final AtomicLong createdCount = new AtomicLong();
+  private final AtomicLong maxRssKb = new AtomicLong();
+  private final int totalWeight;
+  private volatile boolean measuring;
+
+  LoadGenerator(final Options options) {
+    this.options = options;
+    this.httpClient =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    this.authorization =
+        "Basic "
+            + Base64.getEncoder()
+                .encodeToString(
+                    (options.username() + ":" + options.password())
+                        .getBytes(StandardCharsets.UTF_8));
+    for (Operation operation : Operation.values()) {
+      recorders.put(operation, new Recorder(HIGHEST_LATENCY_MICROS, 3));
+      errors.put(operation, new LongAdder());
+    }
+    for (int i = 0; i < options.apps(); i++) {
+      createdNames.add(new ConcurrentLinkedQueue<>());
+    }
+    this.totalWeight = options.mix().values().stream().mapToInt(Integer::intValue).sum();
+  }
+
+  public static void main(final String[] args) throws Exception {
+    new LoadGenerator(Options.parse(args)).run();
+  }
+
+  void run() throws Exception {
+    log.info("Load Test Options: [{}]", options);
+    for (int documents : options.documents()) {
+      run(documents);
+    }
+  }
+
+  private void run(final int documents) throws Exception {
+    seed(documents);
+    createdNames.forEach(ConcurrentLinkedQueue::clear);
+    maxRssKb.set(0);
+
+    final long endTime =
+        System.nanoTime() + options.warmup().toNanos() + options.duration().toNanos();
+    try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < options.concurrency(); i++) {
+        executorService.submit(() -> runClient(documents, endTime));
+      }
+      Thread.sleep(options.warmup());
+      // anything recorded during warmup is dropped
+      recorders.values().forEach(Recorder::reset);
+      errors.values().forEach(LongAdder::reset);
+      measuring = true;
+      if (options.serverPid() != null) {
+        executorService.submit(() -> sampleRss(endTime));
+      }
+    }
+    measuring = false;
+    report(documents);
+  }
+
+  // each number of documents has its own apps, seeded in batches to keep requests small
+  private void seed(final int documents) throws IOException, InterruptedException {
+    for (int i = 0; i < options.apps(); i++) {
+      for (int from = 0; from < documents; from += SEED_BATCH_SIZE) {
+        final StringBuilder body = new StringBuilder("[");
+        for (int j = from; j < Math.min(from + SEED_BATCH_SIZE, documents); j++) {
+          body.append(j == from ? "" : ",").append(getEnvDetailsJson("name_" + j));
+        }
+        final HttpResponse<Void> response =
+            send(
+                "/api/v1/" + getAppName(documents, i) + "/batch",
+                "POST",
+                HttpRequest.BodyPublishers.ofString(body.append("]").toString()));
+        if (response.statusCode() != 200) {
+          throw new IllegalStateException("Seed Failed: " + response.statusCode());
+        }
+      }
+    }
+    log.info("Seeded Apps: [{}] | Documents: [{}]", options.apps(), documents);
+  }
+
+  private void runClient(final int documents, final long endTime) {
+    while (System.nanoTime() < endTime) {
+      final Operation operation = nextOperation();
+      final long startTime = System.nanoTime();
+      boolean isError;
+      try {
+        isError = !execute(operation, documents);
+      } catch (Exception ex) {
+        isError = true;
+      }
+      if (measuring) {
+        recorders
+            .get(operation)
+            .recordValue(
+                Math.min(
+                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime),
+                    HIGHEST_LATENCY_MICROS));
+        if (isError) {
+          errors.get(operation).increment();
+        }
+      }
+    }
+  }
+
+  private Operation nextOperation() {
+    int weight = ThreadLocalRandom.current().nextInt(totalWeight);
+    for (Map.Entry<Operation, Integer> entry : options.mix().entrySet()) {
+      weight -= entry.getValue();
+      if (weight < 0) {
+        return entry.getKey();
+      }
+    }
+    return Operation.READ;
+  }
+
+  private boolean execute(final Operation operation, final int documents)
+      throws IOException, InterruptedException {
+    final int appIndex = ThreadLocalRandom.current().nextInt(options.apps());
+    final String appPath = "/api/v1/" + getAppName(documents, appIndex);
+    final String name = "name_" + ThreadLocalRandom.current().nextInt(documents);
+    return switch (operation) {
+      case READ -> isSuccess(send(appPath, "GET", HttpRequest.BodyPublishers.noBody()));
+      case READ_BY_NAME ->
+          isSuccess(send(appPath + "/" + name, "GET", HttpRequest.BodyPublishers.noBody()));
+      case UPDATE ->
+          isSuccess(
+              send(
+                  appPath + "/" + name,
+                  "PUT",
+                  HttpRequest.BodyPublishers.ofString(getEnvDetailsJson(name))));
+      case CREATE -> {
+        final String createdName = "created_" + createdCount.incrementAndGet();
+        final boolean isSuccess =
+            isSuccess(
+                send(
+                    appPath,
+                    "POST",
+                    HttpRequest.BodyPublishers.ofString(getEnvDetailsJson(createdName))));
+        if (isSuccess) {
+          createdNames.get(appIndex).add(createdName);
+        }
+        yield isSuccess;
+      }
+      case DELETE -> {
+        final String createdName = createdNames.get(appIndex).poll();
+        // nothing to delete yet is not an error, deleting seeded documents would break reads
+        yield createdName == null
+            || isSuccess(
+                send(appPath + "/" + createdName, "DELETE", HttpRequest.BodyPublishers.noBody()));
+      }
+    };
+  }
+
+  private HttpResponse<Void> send(
+      final String path, final String method, final HttpRequest.BodyPublisher bodyPublisher)
+      throws IOException, InterruptedException {
+    return httpClient.send(
+        HttpRequest.newBuilder(URI.create(options.baseUrl() + path))
+            .timeout(Duration.ofSeconds(30))
+            .header("Authorization", authorization)
+            .header("Content-Type", "application/json")
+            .method(method, bodyPublisher)
+            .build(),
+        HttpResponse.BodyHandlers.discarding());
+  }
+
+  private boolean isSuccess(final HttpResponse<Void> response) {
+    return response.statusCode() >= 200 && response.statusCode() < 300;
+  }
+
+  private String getAppName(final int documents, final int appIndex) {
+    return "loadtest_" + documents + "_" + appIndex;
+  }
+
+  private String getEnvDetailsJson(final String name) {
+    return String.format(
+        "{\"name\":\"%s\",\"stringValue\":\"value_%d\",\"listValue\":[\"one\",\"two\"],"
+            + "\"mapValue\":{\"one\":\"1\",\"two\":\"2\"}}",
+        name, ThreadLocalRandom.current().nextInt(1000));
+  }
+
+  private void sampleRss(final long endTime) {
+    final Path statusPath = Path.of("/proc", String.valueOf(options.serverPid()), "status");
+    while (System.nanoTime() < endTime) {
+      try {
+        for (String line : Files.readAllLines(statusPath)) {
+          if (line.startsWith("VmRSS:")) {
+            final long rssKb = Long.parseLong(line.replaceAll("\\D", ""));
+            maxRssKb.accumulateAndGet(rssKb, Math::max);
+          }
+        }
+        Thread.sleep(500);
+      } catch (IOException ex) {
+        log.error("Sample RSS Exception: [{}]", statusPath, ex);
+        return;
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private void report(final int documents) throws IOException {
+    Files.createDirectories(options.outputDir());
+    final double seconds = options.duration().toMillis() / 1000.0;
+    final Histogram total = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+    final PrintStream out = System.out;
+    out.printf("documents per app: %d%n", documents);
+    out.printf(
+        "%-13s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+        "operation",
+        "count",
+        "errors",
+        "ops/s",
+        "p50 ms",
+        "p90 ms",
+        "p99 ms",
+        "p99.9 ms",
+        "max ms");
+    for (Operation operation : Operation.values()) {
+      final Histogram histogram = recorders.get(operation).getIntervalHistogram();
+      if (histogram.getTotalCount() == 0) {
+        continue;
+      }
+      total.add(histogram);
+      printHistogram(out, operation.name(), histogram, errors.get(operation).sum(), seconds);
+      writeHistogram(operation.name(), documents, histogram);
+    }
+    printHistogram(
+        out, "TOTAL", total, errors.values().stream().mapToLong(LongAdder::sum).sum(), seconds);
+    writeHistogram("TOTAL", documents, total);
+    if (options.serverPid() != null) {
+      out.printf("max server RSS: %d MB%n", maxRssKb.get() / 1024);
+    }
+    out.printf("percentile distributions written to: %s%n", options.outputDir().toAbsolutePath());
+  }
+
+  private void printHistogram(
+      final PrintStream out,
+      final String name,
+      final Histogram histogram,
+      final long errorCount,
+      final double seconds) {
+    out.printf(
+        "%-13s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+        name,
+        histogram.getTotalCount(),
+        errorCount,
+        histogram.getTotalCount() / seconds,
+        histogram.getValueAtPercentile(50) / 1000.0,
+        histogram.getValueAtPercentile(90) / 1000.0,
+        histogram.getValueAtPercentile(99) / 1000.0,
+        histogram.getValueAtPercentile(99.9) / 1000.0,
+        histogram.getMaxValue() / 1000.0);
+  }
+
+  // HdrHistogram percentile distribution in milliseconds, can be plotted with its plotter
+  private void writeHistogram(final String name, final int documents, final Histogram histogram)
+      throws IOException {
+    try (PrintStream out =
+        new PrintStream(
+            Files.newOutputStream(
+                options.outputDir().resolve(name.toLowerCase() + "_" + documents + ".hgrm")),
+            false,
+            StandardCharsets.UTF_8)) {
+      histogram.outputPercentileDistribution(out, 1000.0);
+    }
+  }
+}
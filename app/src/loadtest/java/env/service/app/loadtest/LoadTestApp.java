@@ -0,0 +1,68 @@
+package env.service.app.loadtest;
+
+import static env.service.app.util.CommonUtils.getSystemEnvProperty;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import env.service.App;
+import env.service.app.util.ConstantUtils;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
+
+/**
+ * Runs the app against an in-memory MongoDB wire protocol server instead of Atlas, so it can be
+ * load tested offline. The real driver and MongoTemplate are used, with latency added to every
+ * MongoDB command by {@link LoadTestConfig}. With STORAGE_TYPE=local the app uses its local store
+ * instead and the MongoDB server is left idle.
+ */
+@Slf4j
+public class LoadTestApp {
+
+  private static final String LOAD_TEST_PROFILE = "loadtest";
+
+  public static void main(final String[] args) {
+    final MongoServer mongoServer = new MongoServer(new MemoryBackend());
+    final InetSocketAddress mongoAddress = mongoServer.bind();
+    log.info(
+        "Load Test MongoDB Listening: [{}:{}] | PID: [{}]",
+        mongoAddress.getHostString(),
+        mongoAddress.getPort(),
+        ProcessHandle.current().pid());
+
+    // the app requires these, they only need to be set for the load generator to authenticate
+    Stream.of(
+            ConstantUtils.AUTH_USR,
+            ConstantUtils.AUTH_PWD,
+            ConstantUtils.MONGO_APP,
+            ConstantUtils.MONGO_DB,
+            ConstantUtils.MONGO_USR,
+            ConstantUtils.MONGO_PWD)
+        .filter(keyName -> getSystemEnvProperty(keyName, null) == null)
+        .forEach(keyName -> System.setProperty(keyName, LOAD_TEST_PROFILE));
+
+    final SpringApplication app = new SpringApplication(App.class);
+    app.setAdditionalProfiles(LOAD_TEST_PROFILE);
+    app.setDefaultProperties(App.getDefaultProperties());
+    final List<String> runArgs =
+        Stream.concat(
+                Stream.of(
+                    String.format(
+                        "--spring.mongodb.uri=mongodb://%s:%d/%s",
+                        mongoAddress.getHostString(), mongoAddress.getPort(), LOAD_TEST_PROFILE)),
+                Arrays.stream(args))
+            .toList();
+    final ConfigurableApplicationContext context = app.run(runArgs.toArray(String[]::new));
+    context.addApplicationListener(
+        event -> {
+          if (event instanceof ContextClosedEvent) {
+            mongoServer.shutdown();
+          }
+        });
+  }
+}
@@ -0,0 +1,47 @@
+package env.service.app.loadtest;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import java.time.Duration;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.mongodb.autoconfigure.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Slf4j
+@Configuration
+@Profile("loadtest")
+public class LoadTestConfig {
+
+  @Bean
+  public MongoClientSettingsBuilderCustomizer mongoLatencyCustomizer(
+      @Value("${envsvc.loadtest.mongo-latency:5ms}") final Duration mongoLatency) {
+    log.info("Load Test MongoDB Latency: [{}]", mongoLatency);
+    return builder -> builder.addCommandListener(new LatencyCommandListener(mongoLatency));
+  }
+
+  /**
+   * Waits before every command is sent, while the command holds its pooled connection, in place of
+   * the network round trip to Atlas that the in-memory server does not have.
+   */
+  @RequiredArgsConstructor
+  static class LatencyCommandListener implements CommandListener {
+
+    private final Duration latency;
+
+    @Override
+    public void commandStarted(final CommandStartedEvent event) {
+      if (latency.isZero()) {
+        return;
+      }
+      try {
+        Thread.sleep(latency);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,277 @@
+package env.service.app.loadtest;
+
+import static env.service.app.util.CommonUtils.getAppCollectionName;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import env.service.app.util.ConstantUtils;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+
+/**
+ * Starts the app in its own JVM again and again, against an in-memory MongoDB stand-in, and reports
+ * the time from launching the JVM to the first successful /tests/ping and to the first served GET
+ * /api/v1/{appName}, for each startup mode. Options are given as --name=value, see {@link Options}
+ * for names and defaults.
+ */
+@Slf4j
+public class StartupBenchmark {
+
+  private static final String STARTUP_PROFILE = "startup";
+  private static final Duration POLL_INTERVAL = Duration.ofMillis(10);
+
+  enum Mode {
+    // java -jar as built
+    DEFAULT,
+    // with the bean definitions generated by Spring AOT processing
+    SPRING_AOT,
+    // and with the classes loaded and linked by the training run in the JDK AOT cache
+    AOT_CACHE
+  }
+
+  enum Metric {
+    PING,
+    FIRST_CONFIG
+  }
+
+  record Options(
+      Path jar,
+      Path aotCache,
+      List<Mode> modes,
+      int runs,
+      int documents,
+      List<String> jvmArgs,
+      Duration timeout,
+      Path outputDir) {
+
+    static Options parse(final String[] args) {
+      final Map<String, String> values = new HashMap<>();
+      for (String arg : args) {
+        final int separatorIndex = arg.indexOf('=');
+        if (!arg.startsWith("--") || separatorIndex < 0) {
+          throw new IllegalArgumentException("Options are given as --name=value: " + arg);
+        }
+        values.put(arg.substring(2, separatorIndex), arg.substring(separatorIndex + 1));
+      }
+
+      return new Options(
+          Path.of(values.getOrDefault("jar", "build/aot/env-service/env-service.jar")),
+          Path.of(values.getOrDefault("aotCache", "build/aot/env-service/env-service.aot")),
+          Arrays.stream(values.getOrDefault("modes", "default,springAot,aotCache").split(","))
+              .map(mode -> mode.trim().replaceAll("([a-z])([A-Z])", "$1_$2").toUpperCase())
+              .map(Mode::valueOf)
+              .toList(),
+          Integer.parseInt(values.getOrDefault("runs", "5")),
+          Integer.parseInt(values.getOrDefault("documents", "20")),
+          values.containsKey("jvmArgs")
+              ? Arrays.asList(values.get("jvmArgs").trim().split("\\s+"))
+              : List.of(),
+          Duration.parse(values.getOrDefault("timeout", "PT2M")),
+          Path.of(values.getOrDefault("outputDir", "build/startup")));
+    }
+  }
+
+  private final Options options;
+  private final HttpClient httpClient;
+  private final String authorization;
+  private final Map<Mode, Map<Metric, List<Long>>> results = new EnumMap<>(Mode.class);
+
+  StartupBenchmark(final Options options) {
+    this.options = options;
+    this.httpClient =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+    this.authorization =
+        "Basic "
+            + Base64.getEncoder()
+                .encodeToString(
+                    (STARTUP_PROFILE + ":" + STARTUP_PROFILE).getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static void main(final String[] args) throws Exception {
+    new StartupBenchmark(Options.parse(args)).run();
+  }
+
+  void run() throws Exception {
+    log.info("Startup Benchmark Options: [{}]", options);
+    Files.createDirectories(options.outputDir());
+    final MongoServer mongoServer = new MongoServer(new MemoryBackend());
+    try {
+      final String mongoUri = mongoServer.bindAndGetConnectionString() + "/" + STARTUP_PROFILE;
+      seed(mongoUri);
+      // modes take turns, so a slower or busier host affects all of them alike
+      for (int run = 0; run < options.runs(); run++) {
+        for (Mode mode : options.modes()) {
+          final Map<Metric, Long> startupMillis = start(mode, run, mongoUri);
+          log.info("Startup: [{}] | Run: [{}] | Millis: [{}]", mode, run, startupMillis);
+          startupMillis.forEach(
+              (metric, millis) ->
+                  results
+                      .computeIfAbsent(mode, key -> new EnumMap<>(Metric.class))
+                      .computeIfAbsent(metric, key -> new ArrayList<>())
+                      .add(millis));
+        }
+      }
+    } finally {
+      mongoServer.shutdown();
+    }
+    report();
+  }
+
+  private void seed(final String mongoUri) {
+    try (MongoClient mongoClient = MongoClients.create(mongoUri)) {
+      mongoClient
+          .getDatabase(STARTUP_PROFILE)
+          .getCollection(getAppCollectionName(STARTUP_PROFILE))
+          .insertMany(
+              IntStream.range(0, options.documents())
+                  .mapToObj(
+                      i ->
+                          new Document("name", "name_" + i)
+                              .append("stringValue", "value_" + i)
+                              .append("listValue", List.of("one", "two"))
+                              .append("version", 0L))
+                  .toList());
+    }
+    log.info("Seeded App: [{}] | Documents: [{}]", STARTUP_PROFILE, options.documents());
+  }
+
+  private Map<Metric, Long> start(final Mode mode, final int run, final String mongoUri)
+      throws IOException, InterruptedException {
+    final int port = getFreePort();
+    final List<String> command = new ArrayList<>();
+    command.add(ProcessHandle.current().info().command().orElse("java"));
+    command.addAll(options.jvmArgs());
+    if (mode != Mode.DEFAULT) {
+      command.add("-Dspring.aot.enabled=true");
+    }
+    if (mode == Mode.AOT_CACHE) {
+      command.add("-XX:AOTCache=" + options.aotCache().toAbsolutePath());
+    }
+    // started as in the Dockerfile, the AOT cache is only used with the classpath it was made with
+    command.addAll(
+        List.of(
+            "-jar", options.jar().getFileName().toString(), "--spring.mongodb.uri=" + mongoUri));
+
+    final ProcessBuilder processBuilder =
+        new ProcessBuilder(command)
+            .directory(options.jar().toAbsolutePath().getParent().toFile())
+            .redirectErrorStream(true)
+            .redirectOutput(
+                options
+                    .outputDir()
+                    .toAbsolutePath()
+                    .resolve(mode.name().toLowerCase() + "_" + run + ".log")
+                    .toFile());
+    final Map<String, String> environment = processBuilder.environment();
+    for (String keyName :
+        List.of(
+            ConstantUtils.AUTH_USR,
+            ConstantUtils.AUTH_PWD,
+            ConstantUtils.MONGO_APP,
+            ConstantUtils.MONGO_DB,
+            ConstantUtils.MONGO_USR,
+            ConstantUtils.MONGO_PWD)) {
+      environment.put(keyName, STARTUP_PROFILE);
+    }
+    environment.put(ConstantUtils.SERVER_PORT, String.valueOf(port));
+    environment.put(ConstantUtils.STORAGE_TYPE, "mongo");
+    // logs to the console, which is written to outputDir
+    environment.put("SPRING_PROFILES_ACTIVE", "production");
+    // without a snapshot the first config is read from MongoDB, as on a first deploy
+    environment.put("SNAPSHOT_FILE", "");
+
+    final String baseUrl = "http://localhost:" + port + "/envsvc";
+    final Map<Metric, Long> startupMillis = new EnumMap<>(Metric.class);
+    final long startTime = System.nanoTime();
+    final Process process = processBuilder.start();
+    try {
+      final long deadline = startTime + options.timeout().toNanos();
+      startupMillis.put(
+          Metric.PING, awaitOk(process, baseUrl + "/tests/ping", startTime, deadline));
+      startupMillis.put(
+          Metric.FIRST_CONFIG,
+          awaitOk(process, baseUrl + "/api/v1/" + STARTUP_PROFILE, startTime, deadline));
+    } finally {
+      process.destroy();
+      if (!process.waitFor(30, TimeUnit.SECONDS)) {
+        process.destroyForcibly();
+      }
+    }
+    return startupMillis;
+  }
+
+  // milliseconds from startTime to the first 200 response from url
+  private long awaitOk(
+      final Process process, final String url, final long startTime, final long deadline)
+      throws InterruptedException {
+    final HttpRequest request =
+        HttpRequest.newBuilder(URI.create(url))
+            .header("Authorization", authorization)
+            .timeout(Duration.ofSeconds(5))
+            .build();
+    while (System.nanoTime() < deadline) {
+      if (!process.isAlive()) {
+        throw new IllegalStateException("App Exited: " + process.exitValue());
+      }
+      try {
+        if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+          return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        }
+      } catch (IOException ex) {
+        // not listening yet
+      }
+      Thread.sleep(POLL_INTERVAL);
+    }
+    throw new IllegalStateException("App Not Started: " + url);
+  }
+
+  private int getFreePort() throws IOException {
+    try (ServerSocket serverSocket = new ServerSocket(0)) {
+      return serverSocket.getLocalPort();
+    }
+  }
+
+  private void report() {
+    final PrintStream out = System.out;
+    out.printf("%-11s %-13s %9s %9s %9s%n", "mode", "metric", "min ms", "median ms", "max ms");
+    results.forEach(
+        (mode, metrics) ->
+            metrics.forEach(
+                (metric, millis) -> {
+                  final List<Long> sorted = millis.stream().sorted().toList();
+                  out.printf(
+                      "%-11s %-13s %9d %9d %9d%n",
+                      mode,
+                      metric,
+                      sorted.getFirst(),
+                      sorted.get(sorted.size() / 2),
+                      sorted.getLast());
+                }));
+    out.printf("app logs written to: %s%n", options.outputDir().toAbsolutePath());
+  }
+}
@@ -11,45 +11,79 @@ import static env.service.app.util.ConstantUtils.MONGO_DB;
 import static env.service.app.util.ConstantUtils.MONGO_PWD;
 import static env.service.app.util.ConstantUtils.MONGO_USR;
 import static env.service.app.util.ConstantUtils.SERVER_PORT;
-import static java.util.Collections.singletonMap;
+import static env.service.app.util.ConstantUtils.STORAGE_TYPE;
 
+import java.util.HashMap;
+import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.boot.data.mongodb.autoconfigure.DataMongoAutoConfiguration;
+import org.springframework.boot.mongodb.autoconfigure.MongoAutoConfiguration;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Slf4j
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@EnableAsync
+@EnableCaching
 @EnableScheduling
 public class App {
 
   public static void main(final String[] args) {
     log.info("Begin application initialization...");
     validateEnvVarsInput();
+    if (isLocalStorage()) {
+      // the bean definitions generated by Spring AOT processing are those of the MongoDB store
+      System.setProperty("spring.aot.enabled", "false");
+    }
 
     SpringApplication app = new SpringApplication(App.class);
-    app.setDefaultProperties(
-        singletonMap("server.port", getSystemEnvProperty(SERVER_PORT, "8002")));
+    app.setDefaultProperties(getDefaultProperties());
     app.run(args);
     log.info("End application initialization...");
   }
 
+  public static Map<String, Object> getDefaultProperties() {
+    final Map<String, Object> defaultProperties = new HashMap<>();
+    defaultProperties.put("server.port", getSystemEnvProperty(SERVER_PORT, "8002"));
+    if (isLocalStorage()) {
+      // no MongoDB client is created when env details are stored locally
+      defaultProperties.put(
+          "spring.autoconfigure.exclude",
+          MongoAutoConfiguration.class.getName()
+              + ","
+              + DataMongoAutoConfiguration.class.getName());
+    }
+    return defaultProperties;
+  }
+
+  private static boolean isLocalStorage() {
+    return "local".equalsIgnoreCase(getSystemEnvProperty(STORAGE_TYPE, "mongo"));
+  }
+
   private static void validateEnvVarsInput() {
     boolean isEnvVarsMissing = getSystemEnvProperty(AUTH_USR, null) == null;
     if (getSystemEnvProperty(AUTH_PWD, null) == null) {
       isEnvVarsMissing = true;
     }
-    if (getSystemEnvProperty(MONGO_APP, null) == null) {
-      isEnvVarsMissing = true;
-    }
-    if (getSystemEnvProperty(MONGO_DB, null) == null) {
-      isEnvVarsMissing = true;
-    }
-    if (getSystemEnvProperty(MONGO_USR, null) == null) {
-      isEnvVarsMissing = true;
-    }
-    if (getSystemEnvProperty(MONGO_PWD, null) == null) {
-      isEnvVarsMissing = true;
+    // MongoDB env variables are only required when env details are stored in MongoDB
+    if (!isLocalStorage()) {
+      if (getSystemEnvProperty(MONGO_APP, null) == null) {
+        isEnvVarsMissing = true;
+      }
+      if (getSystemEnvProperty(MONGO_DB, null) == null) {
+        isEnvVarsMissing = true;
+      }
+      if (getSystemEnvProperty(MONGO_USR, null) == null) {
+        isEnvVarsMissing = true;
+      }
+      if (getSystemEnvProperty(MONGO_PWD, null) == null) {
+        isEnvVarsMissing = true;
+      }
     }
     if (isEnvVarsMissing) {
       throw new IllegalStateException(
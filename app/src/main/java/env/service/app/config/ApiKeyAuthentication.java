@@ -0,0 +1,37 @@
+package env.service.app.config;
+
+import java.util.Set;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+/** Authentication of a verified API key, limited to appNames unless appNames is empty. */
+public class ApiKeyAuthentication extends AbstractAuthenticationToken {
+
+  private final String clientId;
+  private final Set<String> appNames;
+
+  public ApiKeyAuthentication(final String clientId, final Set<String> appNames) {
+    super(AuthorityUtils.createAuthorityList("ROLE_API_KEY"));
+    this.clientId = clientId;
+    this.appNames = Set.copyOf(appNames);
+    setAuthenticated(true);
+  }
+
+  @Override
+  public Object getCredentials() {
+    return null;
+  }
+
+  @Override
+  public Object getPrincipal() {
+    return clientId;
+  }
+
+  public boolean isScoped() {
+    return !appNames.isEmpty();
+  }
+
+  public boolean isAllowed(final String appName) {
+    return appNames.isEmpty() || appNames.contains(appName);
+  }
+}
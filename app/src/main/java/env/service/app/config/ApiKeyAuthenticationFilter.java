@@ -0,0 +1,55 @@
+package env.service.app.config;
+
+import env.service.app.service.ApiKeyService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Authenticates requests that have an X-API-Key header, requests without it continue to HTTP Basic.
+ * Requests with an invalid key are rejected here instead of falling back to HTTP Basic. The
+ * authentication is saved to the securityContextRepository, so the async dispatches of streamed and
+ * watch responses are authorized too.
+ */
+@RequiredArgsConstructor
+public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
+
+  public static final String API_KEY_HEADER = "X-API-Key";
+
+  private final ApiKeyService apiKeyService;
+  private final SecurityContextRepository securityContextRepository;
+
+  @Override
+  protected void doFilterInternal(
+      final HttpServletRequest request,
+      final HttpServletResponse response,
+      final FilterChain filterChain)
+      throws ServletException, IOException {
+    final String apiKey = request.getHeader(API_KEY_HEADER);
+    if (!StringUtils.hasText(apiKey)) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    final ApiKeyAuthentication apiKeyAuthentication = apiKeyService.authenticate(apiKey);
+    if (apiKeyAuthentication == null) {
+      response.setStatus(HttpStatus.UNAUTHORIZED.value());
+      return;
+    }
+
+    final SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+    securityContext.setAuthentication(apiKeyAuthentication);
+    SecurityContextHolder.setContext(securityContext);
+    securityContextRepository.saveContext(securityContext, request, response);
+    filterChain.doFilter(request, response);
+  }
+}
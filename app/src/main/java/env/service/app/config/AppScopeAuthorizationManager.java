@@ -0,0 +1,75 @@
+package env.service.app.config;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.util.StringUtils;
+
+/**
+ * Allows authenticated requests, except that API keys scoped to some apps can only access those
+ * apps. Requests that are not for specific apps are only allowed for unscoped credentials.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class AppScopeAuthorizationManager
+    implements AuthorizationManager<RequestAuthorizationContext> {
+
+  private static final AuthenticationTrustResolver TRUST_RESOLVER =
+      new AuthenticationTrustResolverImpl();
+
+  // app names the request is for, empty when it is not for specific apps
+  private final Function<RequestAuthorizationContext, List<String>> appNamesResolver;
+
+  public static AppScopeAuthorizationManager forAppNameVariable() {
+    return new AppScopeAuthorizationManager(
+        context -> {
+          final String appName = context.getVariables().get("appName");
+          return appName == null ? List.of() : List.of(appName);
+        });
+  }
+
+  public static AppScopeAuthorizationManager forAppsParameter() {
+    return new AppScopeAuthorizationManager(
+        context -> {
+          // every value, as apps can be repeated as well as comma separated
+          final String[] apps = context.getRequest().getParameterValues("apps");
+          return apps == null
+              ? List.of()
+              : Arrays.stream(apps)
+                  .flatMap(appsValue -> Arrays.stream(appsValue.split(",")))
+                  .map(String::trim)
+                  .filter(StringUtils::hasText)
+                  .toList();
+        });
+  }
+
+  public static AppScopeAuthorizationManager forAllApps() {
+    return new AppScopeAuthorizationManager(context -> List.of());
+  }
+
+  @Override
+  public AuthorizationResult authorize(
+      final Supplier<? extends Authentication> authentication,
+      final RequestAuthorizationContext context) {
+    final Authentication authenticationCurrent = authentication.get();
+    if (!TRUST_RESOLVER.isAuthenticated(authenticationCurrent)) {
+      return new AuthorizationDecision(false);
+    }
+    if (!(authenticationCurrent instanceof ApiKeyAuthentication apiKeyAuthentication)
+        || !apiKeyAuthentication.isScoped()) {
+      return new AuthorizationDecision(true);
+    }
+    final List<String> appNames = appNamesResolver.apply(context);
+    return new AuthorizationDecision(
+        !appNames.isEmpty() && appNames.stream().allMatch(apiKeyAuthentication::isAllowed));
+  }
+}
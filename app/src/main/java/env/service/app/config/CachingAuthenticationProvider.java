@@ -0,0 +1,55 @@
+package env.service.app.config;
+
+import static env.service.app.util.CommonUtils.getSha256Hex;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Remembers successful username and password authentications for a short time, keyed by the SHA-256
+ * of both, so that the password encoder, which is slow by design for hashed passwords, does not run
+ * on every request of a stateless session.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+  private final AuthenticationProvider authenticationProvider;
+  private final Cache<String, Authentication> authentications;
+
+  public CachingAuthenticationProvider(
+      final AuthenticationProvider authenticationProvider,
+      final Duration cacheTtl,
+      final int cacheMaxSize) {
+    this.authenticationProvider = authenticationProvider;
+    this.authentications =
+        Caffeine.newBuilder().maximumSize(cacheMaxSize).expireAfterWrite(cacheTtl).build();
+  }
+
+  @Override
+  public Authentication authenticate(final Authentication authentication) {
+    if (authentication.getCredentials() == null) {
+      return authenticationProvider.authenticate(authentication);
+    }
+    final String cacheKey =
+        getSha256Hex(authentication.getName() + ":" + authentication.getCredentials());
+    final Authentication authenticationCached = authentications.getIfPresent(cacheKey);
+    if (authenticationCached != null) {
+      return authenticationCached;
+    }
+    final Authentication authenticationVerified =
+        authenticationProvider.authenticate(authentication);
+    if (authenticationVerified != null && authenticationVerified.isAuthenticated()) {
+      authentications.put(cacheKey, authenticationVerified);
+    }
+    return authenticationVerified;
+  }
+
+  @Override
+  public boolean supports(final Class<?> authentication) {
+    return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication)
+        && authenticationProvider.supports(authentication);
+  }
+}
@@ -0,0 +1,132 @@
+package env.service.app.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "envsvc")
+public class EnvServiceProperties {
+  private final Read read = new Read();
+  private final Watch watch = new Watch();
+  private final Maintenance maintenance = new Maintenance();
+  private final Metrics metrics = new Metrics();
+  private final Logging logging = new Logging();
+  private final ApiKeys apiKeys = new ApiKeys();
+  private final Storage storage = new Storage();
+  private final Snapshot snapshot = new Snapshot();
+  private final Mongo mongo = new Mongo();
+
+  @Data
+  public static class Read {
+    // maximum number of apps in one multi app read, each app is fetched concurrently
+    private int maxApps = 10;
+  }
+
+  @Data
+  public static class Watch {
+    // maximum number of open watch connections across all apps
+    private int maxSubscribers = 200;
+    // watch connections are closed after this, clients reconnect with Last-Event-ID
+    private Duration timeout = Duration.ofMinutes(30);
+  }
+
+  @Data
+  public static class Maintenance {
+    // maximum number of collections probed and dropped at the same time
+    private int parallelism = 4;
+  }
+
+  @Data
+  public static class Metrics {
+    // maximum number of distinct appName tag values, other apps are tagged as other
+    private int maxAppTags = 100;
+  }
+
+  @Data
+  public static class Logging {
+    // fraction of successful requests that are logged, errors and slow requests are always logged
+    private double sampleRate = 1.0;
+    // requests taking at least this long are always logged
+    private Duration slowThreshold = Duration.ofSeconds(1);
+  }
+
+  @Data
+  public static class ApiKeys {
+    // verified keys are cached by their SHA-256 so repeat requests skip the password encoder
+    private Duration cacheTtl = Duration.ofMinutes(5);
+    private int cacheMaxSize = 1000;
+    // keyed by client id, clients send X-API-Key: <client id>.<secret>
+    private Map<String, Client> clients = new HashMap<>();
+
+    @Data
+    public static class Client {
+      // encoded secret with its encoder id, eg: {bcrypt}$2a$10$...
+      private String secretHash;
+      // apps the client can access, empty for all apps
+      private Set<String> appNames = new HashSet<>();
+    }
+  }
+
+  @Data
+  public static class Storage {
+    // deleted documents are remembered this long, for clients reading the changes of an app
+    private Duration tombstoneRetention = Duration.ofDays(7);
+    // mongo writes, and clock differences between instances, are expected to take less than this,
+    // the default covers the default server selection, pool wait and read timeouts
+    private Duration maxWriteTime = Duration.ofMinutes(1);
+    private final Local local = new Local();
+
+    @Data
+    public static class Local {
+      // holds the snapshot and the append-only log of writes since the snapshot
+      private Path directory = Path.of("data");
+      // sync the log to disk after every write, otherwise a power loss can lose the last writes
+      private boolean fsync = true;
+      // the log is compacted into a new snapshot once it has this many records
+      private int compactThreshold = 1000;
+    }
+  }
+
+  @Data
+  public static class Snapshot {
+    // last known good env details of every app, not written to disk when empty, the default, as the
+    // working directory is not writable in the Docker image nor on App Engine
+    private String file = "";
+  }
+
+  @Data
+  public static class Mongo {
+    private final Pool pool = new Pool();
+    // time to open a connection to a server
+    private Duration connectTimeout = Duration.ofSeconds(10);
+    // time to wait for a server to reply on an open connection, zero for no limit
+    private Duration readTimeout = Duration.ofSeconds(30);
+    // time to wait for a server to be available, reads fall back to the last known good snapshot
+    // after
+    private Duration serverSelectionTimeout = Duration.ofSeconds(10);
+    // of app names, name lookups and streams, eg: secondaryPreferred, cache loads and writes always
+    // go to the primary
+    private String readPreference = "primary";
+    // secondaries further behind the primary than this are not read from, at least 90 seconds
+    private Duration maxStaleness = Duration.ofSeconds(90);
+
+    @Data
+    public static class Pool {
+      // connections to each server, in use and idle
+      private int maxSize = 100;
+      private int minSize = 0;
+      // time a request waits for a connection when all are in use, the pool is exhausted after
+      private Duration maxWaitTime = Duration.ofSeconds(5);
+      // idle connections are closed after this, zero to keep them open
+      private Duration maxIdleTime = Duration.ZERO;
+      // connections being opened at the same time
+      private int maxConnecting = 2;
+    }
+  }
+}
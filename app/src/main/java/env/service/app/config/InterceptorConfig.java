@@ -1,15 +1,24 @@
 package env.service.app.config;
 
+import env.service.app.service.AppRegistryService;
 import env.service.app.util.InterceptorUtilsLogging;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
+@RequiredArgsConstructor
 public class InterceptorConfig implements WebMvcConfigurer {
 
+  private final MeterRegistry meterRegistry;
+  private final AppRegistryService appRegistryService;
+  private final EnvServiceProperties envServiceProperties;
+
   @Override
   public void addInterceptors(final InterceptorRegistry registry) {
-    registry.addInterceptor(new InterceptorUtilsLogging());
+    registry.addInterceptor(
+        new InterceptorUtilsLogging(meterRegistry, appRegistryService, envServiceProperties));
   }
 }
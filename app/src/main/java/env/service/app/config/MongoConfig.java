@@ -0,0 +1,86 @@
+package env.service.app.config;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.mongodb.autoconfigure.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Pool, timeouts and pool metrics of the MongoDB client, on top of spring.mongodb.uri. Pool size,
+ * checked out connections and failed checkouts are published by spring as mongodb.driver.pool.*,
+ * the time waited for a connection and exhausted pool checkouts are added here.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(
+    prefix = "envsvc.storage",
+    name = "type",
+    havingValue = "mongo",
+    matchIfMissing = true)
+public class MongoConfig {
+
+  @Bean
+  public MongoClientSettingsBuilderCustomizer mongoSettingsCustomizer(
+      final EnvServiceProperties envServiceProperties, final MeterRegistry meterRegistry) {
+    final EnvServiceProperties.Mongo mongo = envServiceProperties.getMongo();
+    log.info("MongoDB Client Settings: [{}]", mongo);
+    final PoolMetricsListener poolMetricsListener =
+        new PoolMetricsListener(
+            Timer.builder("envsvc.mongo.pool.wait")
+                .description("Time waited to check out a connection from the MongoDB pool")
+                .register(meterRegistry),
+            Counter.builder("envsvc.mongo.pool.exhausted")
+                .description("Checkouts that timed out waiting for a free MongoDB connection")
+                .register(meterRegistry));
+    return builder ->
+        builder
+            .applyToConnectionPoolSettings(
+                pool ->
+                    pool.maxSize(mongo.getPool().getMaxSize())
+                        .minSize(mongo.getPool().getMinSize())
+                        .maxWaitTime(
+                            mongo.getPool().getMaxWaitTime().toMillis(), TimeUnit.MILLISECONDS)
+                        .maxConnectionIdleTime(
+                            mongo.getPool().getMaxIdleTime().toMillis(), TimeUnit.MILLISECONDS)
+                        .maxConnecting(mongo.getPool().getMaxConnecting())
+                        .addConnectionPoolListener(poolMetricsListener))
+            .applyToSocketSettings(
+                socket ->
+                    socket
+                        .connectTimeout(mongo.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                        .readTimeout(mongo.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS))
+            .applyToClusterSettings(
+                cluster ->
+                    cluster.serverSelectionTimeout(
+                        mongo.getServerSelectionTimeout().toMillis(), TimeUnit.MILLISECONDS));
+  }
+
+  @RequiredArgsConstructor
+  static class PoolMetricsListener implements ConnectionPoolListener {
+
+    private final Timer waitTimer;
+    private final Counter exhaustedCounter;
+
+    @Override
+    public void connectionCheckedOut(final ConnectionCheckedOutEvent event) {
+      waitTimer.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void connectionCheckOutFailed(final ConnectionCheckOutFailedEvent event) {
+      waitTimer.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+      if (event.getReason() == ConnectionCheckOutFailedEvent.Reason.TIMEOUT) {
+        exhaustedCounter.increment();
+      }
+    }
+  }
+}
@@ -3,18 +3,26 @@ package env.service.app.config;
 import static env.service.app.util.CommonUtils.getSystemEnvProperty;
 import static org.springframework.security.config.Customizer.withDefaults;
 
+import env.service.app.service.ApiKeyService;
 import env.service.app.util.ConstantUtils;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
 
 @Configuration
 @EnableWebSecurity
@@ -22,23 +30,76 @@ import org.springframework.security.web.SecurityFilterChain;
 public class SecurityConfig {
 
   @Bean
-  public SecurityFilterChain securityFilterChain(final HttpSecurity http) throws Exception {
+  public SecurityFilterChain securityFilterChain(
+      final HttpSecurity http,
+      final ApiKeyService apiKeyService,
+      final UserDetailsService userDetailsService,
+      final EnvServiceProperties envServiceProperties)
+      throws Exception {
+    return buildSecurityFilterChain(
+        http, apiKeyService, buildAuthenticationManager(userDetailsService, envServiceProperties));
+  }
+
+  /**
+   * Requests are authenticated with either an X-API-Key header or HTTP Basic. API keys scoped to
+   * some apps can only access those apps. Also used by the test security config so tests run
+   * against the same rules.
+   */
+  public static SecurityFilterChain buildSecurityFilterChain(
+      final HttpSecurity http,
+      final ApiKeyService apiKeyService,
+      final AuthenticationManager authenticationManager)
+      throws Exception {
     return http.csrf(AbstractHttpConfigurer::disable)
+        .authenticationManager(authenticationManager)
         .authorizeHttpRequests(
-            auth -> auth.requestMatchers("/tests/ping").permitAll().anyRequest().authenticated())
+            auth ->
+                auth.requestMatchers("/tests/ping")
+                    .permitAll()
+                    .requestMatchers("/api/v1/appNames")
+                    .access(AppScopeAuthorizationManager.forAllApps())
+                    .requestMatchers("/api/v1/{appName}", "/api/v1/{appName}/**")
+                    .access(AppScopeAuthorizationManager.forAppNameVariable())
+                    .requestMatchers(HttpMethod.GET, "/api/v1")
+                    .access(AppScopeAuthorizationManager.forAppsParameter())
+                    .anyRequest()
+                    .access(AppScopeAuthorizationManager.forAllApps()))
         .sessionManagement(
             session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+        .addFilterBefore(
+            new ApiKeyAuthenticationFilter(
+                apiKeyService, new RequestAttributeSecurityContextRepository()),
+            BasicAuthenticationFilter.class)
         .httpBasic(withDefaults())
         .build();
   }
 
+  /**
+   * HTTP Basic authentication with successful verifications cached. There is no password service,
+   * so a {noop} password is not upgraded to a bcrypt hash that would be checked on every request.
+   */
+  public static AuthenticationManager buildAuthenticationManager(
+      final UserDetailsService userDetailsService,
+      final EnvServiceProperties envServiceProperties) {
+    return new ProviderManager(
+        new CachingAuthenticationProvider(
+            new DaoAuthenticationProvider(userDetailsService),
+            envServiceProperties.getApiKeys().getCacheTtl(),
+            envServiceProperties.getApiKeys().getCacheMaxSize()));
+  }
+
   @Bean
   public InMemoryUserDetailsManager userDetailsService() {
     final UserDetails user =
         User.withUsername(getSystemEnvProperty(ConstantUtils.AUTH_USR, null))
-            .password("{noop}".concat(getSystemEnvProperty(ConstantUtils.AUTH_PWD, null)))
+            .password(getEncodedPassword(getSystemEnvProperty(ConstantUtils.AUTH_PWD, null)))
             .roles("USER")
             .build();
     return new InMemoryUserDetailsManager(user);
   }
+
+  // AUTH_PWD can be given as a hash with its encoder id, eg: {bcrypt}$2a$10$...
+  private String getEncodedPassword(final String password) {
+    return password.startsWith("{") ? password : "{noop}".concat(password);
+  }
 }
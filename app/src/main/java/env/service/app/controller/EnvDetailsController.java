@@ -1,29 +1,66 @@
 package env.service.app.controller;
 
-import static env.service.app.util.CommonUtils.getAppCollectionName;
+import static env.service.app.util.CommonUtils.getAppName;
+import static env.service.app.util.ConstantUtils.HEADER_ENV_DETAILS_STALE;
 
+import env.service.app.config.EnvServiceProperties;
+import env.service.app.model.AppEnvDetails;
+import env.service.app.model.EncodedEnvDetailsResponse;
 import env.service.app.model.EnvDetails;
+import env.service.app.model.EnvDetailsAppsResponse;
+import env.service.app.model.EnvDetailsBatchResponse;
+import env.service.app.model.EnvDetailsBatchStatus;
+import env.service.app.model.EnvDetailsChangedEvent;
+import env.service.app.model.EnvDetailsChanges;
+import env.service.app.model.EnvDetailsChangesResponse;
 import env.service.app.model.EnvDetailsResponse;
+import env.service.app.model.MaintenanceResult;
+import env.service.app.service.AppRegistryService;
+import env.service.app.service.CollectionMaintenanceService;
+import env.service.app.service.EnvDetailsCacheService;
+import env.service.app.service.EnvDetailsEncodingService;
+import env.service.app.service.EnvDetailsSnapshotService;
+import env.service.app.service.EnvDetailsWatchService;
+import env.service.app.store.EnvDetailsStore;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.query.Criteria;
-import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
+import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.json.JsonMapper;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -31,28 +68,27 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/v1")
 public class EnvDetailsController {
 
-  private final MongoTemplate mongoTemplate;
+  private static final long INITIAL_VERSION = 1L;
+  private static final Set<String> PROJECTION_FIELDS =
+      Set.of("stringValue", "listValue", "mapValue");
 
-  @Scheduled(cron = "0 0 22 * * *")
-  void cleanupEmptyCollections() {
-    try {
-      for (String collectionName : mongoTemplate.getCollectionNames()) {
-        if (mongoTemplate.getCollection(collectionName).countDocuments() == 0) {
-          mongoTemplate.dropCollection(collectionName);
-          log.info("Cleaned Up Empty Collection: [{}]", collectionName);
-        }
-      }
-    } catch (Exception ex) {
-      log.error("Cleanup Empty Collections Exception", ex);
-    }
-  }
+  private final EnvDetailsStore envDetailsStore;
+  private final EnvDetailsCacheService envDetailsCacheService;
+  private final EnvDetailsEncodingService envDetailsEncodingService;
+  private final EnvDetailsSnapshotService envDetailsSnapshotService;
+  private final EnvDetailsWatchService envDetailsWatchService;
+  private final CollectionMaintenanceService collectionMaintenanceService;
+  private final AppRegistryService appRegistryService;
+  private final ApplicationEventPublisher applicationEventPublisher;
+  private final EnvServiceProperties envServiceProperties;
+  private final JsonMapper jsonMapper;
+  private final ContentNegotiationManager contentNegotiationManager;
 
   @GetMapping("/appNames")
-  public ResponseEntity<EnvDetailsResponse> getAllAppNames() {
+  public ResponseEntity<EnvDetailsResponse> getAllAppNames(
+      @RequestParam(required = false) final String prefix) {
     try {
-      Set<String> collectionNames = mongoTemplate.getCollectionNames();
-      List<String> appNames =
-          collectionNames.stream().map(collectionName -> collectionName.split("_")[1]).toList();
+      List<String> appNames = appRegistryService.getAppNames(prefix);
       return ResponseEntity.ok(
           EnvDetailsResponse.builder()
               .envDetails(
@@ -69,15 +105,23 @@ public class EnvDetailsController {
   }
 
   @DeleteMapping("/appNames")
-  public ResponseEntity<EnvDetailsResponse> deleteEmptyAppNames() {
+  public ResponseEntity<EnvDetailsResponse> deleteEmptyAppNames(
+      @RequestParam(defaultValue = "false") final boolean dryRun) {
     try {
-      for (String collectionName : mongoTemplate.getCollectionNames()) {
-        if (mongoTemplate.getCollection(collectionName).countDocuments() == 0) {
-          mongoTemplate.dropCollection(collectionName);
-          log.info("Dropped Empty Collection: [{}]", collectionName);
-        }
-      }
-      return ResponseEntity.ok().build();
+      MaintenanceResult maintenanceResult =
+          collectionMaintenanceService.dropEmptyCollections(dryRun);
+      return ResponseEntity.ok(
+          EnvDetailsResponse.builder()
+              .envDetails(
+                  List.of(
+                      EnvDetails.builder()
+                          .name("app_names")
+                          .listValue(
+                              maintenanceResult.getCollectionsDropped().stream()
+                                  .map(collectionName -> getAppName(collectionName))
+                                  .toList())
+                          .build()))
+              .build());
     } catch (Exception ex) {
       log.error("Delete Empty App Names Exception", ex);
       return ResponseEntity.internalServerError()
@@ -92,14 +136,22 @@ public class EnvDetailsController {
   public ResponseEntity<EnvDetailsResponse> create(
       @PathVariable final String appName, @RequestBody final EnvDetails envDetails) {
     try {
-      if (!validateEnvDetails(appName, envDetails)) {
+      if (!isValidEnvDetails(appName, envDetails)) {
         log.error("Env Details Validation Error: [{}] | [{}]", appName, envDetails.getName());
         return ResponseEntity.badRequest()
             .body(EnvDetailsResponse.builder().errMsg("Env Details Validation Error").build());
       }
-      EnvDetails envDetailsSaved = mongoTemplate.save(envDetails, getAppCollectionName(appName));
+      envDetails.setVersion(INITIAL_VERSION);
+      // the store does not allow multiple documents with same name, it throws DuplicateKeyException
+      EnvDetails envDetailsSaved = envDetailsStore.create(appName, envDetails);
+      appRegistryService.add(appName);
+      onEnvDetailsChanged(appName);
       return ResponseEntity.ok(
           EnvDetailsResponse.builder().envDetails(List.of(envDetailsSaved)).build());
+    } catch (DuplicateKeyException ex) {
+      log.error("Env Details Duplicate Error: [{}] | [{}]", appName, envDetails.getName());
+      return ResponseEntity.badRequest()
+          .body(EnvDetailsResponse.builder().errMsg("Env Details Validation Error").build());
     } catch (Exception ex) {
       log.error("Create Exception: [{}] | [{}]", appName, envDetails, ex);
       return ResponseEntity.internalServerError()
@@ -108,12 +160,90 @@ public class EnvDetailsController {
     }
   }
 
+  @PostMapping("/{appName}/batch")
+  public ResponseEntity<EnvDetailsBatchResponse> createBatch(
+      @PathVariable final String appName, @RequestBody final List<EnvDetails> envDetailsList) {
+    try {
+      if (CollectionUtils.isEmpty(envDetailsList)) {
+        log.error("Env Details Batch Validation Error: [{}]", appName);
+        return ResponseEntity.badRequest()
+            .body(EnvDetailsBatchResponse.builder().errMsg("Env Details Validation Error").build());
+      }
+
+      EnvDetailsBatchStatus.Status[] statuses =
+          new EnvDetailsBatchStatus.Status[envDetailsList.size()];
+      List<Integer> insertIndexes = validateEnvDetailsBatch(appName, envDetailsList, statuses);
+
+      if (!insertIndexes.isEmpty()) {
+        insertIndexes.forEach(i -> envDetailsList.get(i).setVersion(INITIAL_VERSION));
+        List<EnvDetailsBatchStatus.Status> insertStatuses =
+            envDetailsStore.createAll(
+                appName, insertIndexes.stream().map(envDetailsList::get).toList());
+        for (int i = 0; i < insertIndexes.size(); i++) {
+          statuses[insertIndexes.get(i)] = insertStatuses.get(i);
+        }
+        appRegistryService.add(appName);
+        onEnvDetailsChanged(appName);
+      }
+
+      return ResponseEntity.ok(
+          EnvDetailsBatchResponse.builder()
+              .envDetailsStatuses(
+                  IntStream.range(0, envDetailsList.size())
+                      .mapToObj(
+                          i ->
+                              EnvDetailsBatchStatus.builder()
+                                  .index(i)
+                                  .name(envDetailsList.get(i).getName())
+                                  .status(statuses[i])
+                                  .build())
+                      .toList())
+              .build());
+    } catch (Exception ex) {
+      log.error("Create Batch Exception: [{}]", appName, ex);
+      return ResponseEntity.internalServerError()
+          .body(
+              EnvDetailsBatchResponse.builder()
+                  .errMsg("Create Batch Exception: " + ex.getMessage())
+                  .build());
+    }
+  }
+
   @GetMapping("/{appName}")
-  public ResponseEntity<EnvDetailsResponse> read(@PathVariable final String appName) {
+  public ResponseEntity<?> read(
+      @PathVariable final String appName,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+          final String acceptEncoding,
+      final NativeWebRequest webRequest) {
     try {
-      List<EnvDetails> envDetailsList =
-          mongoTemplate.findAll(EnvDetails.class, getAppCollectionName(appName));
-      return ResponseEntity.ok(EnvDetailsResponse.builder().envDetails(envDetailsList).build());
+      MediaType mediaType =
+          envDetailsEncodingService.getMediaType(
+              contentNegotiationManager.resolveMediaTypes(webRequest));
+      if (mediaType == null) {
+        return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+      }
+
+      // the ETag is checked against If-None-Match before the body is written, 304 has no body
+      // it is weak as the same documents may be sent in other formats and compressed or not,
+      // tomcat does not compress responses with a strong ETag
+      Set<String> staleAppNames = new HashSet<>();
+      AppEnvDetails appEnvDetails = findAll(appName, staleAppNames);
+      // encoded once per app version, reads write the same bytes
+      EncodedEnvDetailsResponse encodedEnvDetailsResponse =
+          envDetailsEncodingService.getEncodedResponse(
+              appEnvDetails, mediaType, envDetailsEncodingService.isGzipAccepted(acceptEncoding));
+      return ResponseEntity.ok()
+          .eTag("W/\"" + appEnvDetails.version() + "\"")
+          .contentType(mediaType)
+          .headers(
+              headers -> {
+                setStaleHeader(headers, staleAppNames);
+                headers.setVary(List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING));
+                if (encodedEnvDetailsResponse.isGzip()) {
+                  headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+                }
+              })
+          .body(encodedEnvDetailsResponse.bytes());
     } catch (Exception ex) {
       log.error("Read Exception: [{}]", appName, ex);
       return ResponseEntity.internalServerError()
@@ -121,25 +251,248 @@ public class EnvDetailsController {
     }
   }
 
-  @PutMapping("/{appName}/{id}")
+  @GetMapping(value = "/{appName}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> readStream(@PathVariable final String appName) {
+    final Stream<EnvDetails> envDetailsStream;
+    try {
+      // open the cursor here so that query errors can still be returned as 500
+      envDetailsStream = envDetailsStore.stream(appName);
+    } catch (Exception ex) {
+      log.error("Read Stream Exception: [{}]", appName, ex);
+      final byte[] errorBody =
+          jsonMapper.writeValueAsBytes(
+              EnvDetailsResponse.builder()
+                  .errMsg("Read Stream Exception: " + ex.getMessage())
+                  .build());
+      return ResponseEntity.internalServerError()
+          .contentType(MediaType.APPLICATION_JSON)
+          .body(outputStream -> outputStream.write(errorBody));
+    }
+
+    // one document per line straight from the store's cursor, nothing more is collected in memory
+    StreamingResponseBody responseBody =
+        outputStream -> {
+          try (envDetailsStream) {
+            Iterator<EnvDetails> iterator = envDetailsStream.iterator();
+            boolean isFirst = true;
+            while (iterator.hasNext()) {
+              outputStream.write(jsonMapper.writeValueAsBytes(iterator.next()));
+              outputStream.write('\n');
+              if (isFirst) {
+                outputStream.flush();
+                isFirst = false;
+              }
+            }
+          } catch (Exception ex) {
+            log.error("Read Stream Exception: [{}]", appName, ex);
+            throw ex;
+          }
+        };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(responseBody);
+  }
+
+  @GetMapping(value = "/{appName}/watch", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public ResponseEntity<SseEmitter> watch(
+      @PathVariable final String appName,
+      @RequestHeader(value = "Last-Event-ID", required = false) final String lastEventId) {
+    SseEmitter sseEmitter = envDetailsWatchService.subscribe(appName, lastEventId);
+    if (sseEmitter == null) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+    return ResponseEntity.ok(sseEmitter);
+  }
+
+  @GetMapping("/{appName}/changes")
+  public ResponseEntity<EnvDetailsChangesResponse> readChanges(
+      @PathVariable final String appName, @RequestParam(defaultValue = "0") final long since) {
+    try {
+      if (since < 0) {
+        log.error("Read Changes Validation Error: [{}] | [{}]", appName, since);
+        return ResponseEntity.badRequest()
+            .body(
+                EnvDetailsChangesResponse.builder().errMsg("Env Details Validation Error").build());
+      }
+      EnvDetailsChanges envDetailsChanges = envDetailsStore.findChanges(appName, since);
+      return ResponseEntity.ok(
+          EnvDetailsChangesResponse.builder()
+              .revision(envDetailsChanges.revision())
+              .resyncRequired(envDetailsChanges.isResyncRequired())
+              .upserts(envDetailsChanges.upserts())
+              .deletions(envDetailsChanges.deletions())
+              .build());
+    } catch (Exception ex) {
+      log.error("Read Changes Exception: [{}] | [{}]", appName, since, ex);
+      return ResponseEntity.internalServerError()
+          .body(
+              EnvDetailsChangesResponse.builder()
+                  .errMsg("Read Changes Exception: " + ex.getMessage())
+                  .build());
+    }
+  }
+
+  @GetMapping(value = "/{appName}", params = "names")
+  public ResponseEntity<EnvDetailsResponse> readByNames(
+      @PathVariable final String appName,
+      @RequestParam final List<String> names,
+      @RequestParam(required = false) final List<String> fields) {
+    try {
+      if (names.isEmpty() || !isValidProjection(fields)) {
+        log.error("Read By Names Validation Error: [{}] | [{}] | [{}]", appName, names, fields);
+        return ResponseEntity.badRequest()
+            .body(EnvDetailsResponse.builder().errMsg("Env Details Validation Error").build());
+      }
+      List<EnvDetails> envDetailsList = envDetailsStore.findByNames(appName, names, fields);
+      return ResponseEntity.ok(EnvDetailsResponse.builder().envDetails(envDetailsList).build());
+    } catch (Exception ex) {
+      log.error("Read By Names Exception: [{}] | [{}]", appName, names, ex);
+      return ResponseEntity.internalServerError()
+          .body(
+              EnvDetailsResponse.builder()
+                  .errMsg("Read By Names Exception: " + ex.getMessage())
+                  .build());
+    }
+  }
+
+  @GetMapping("/{appName}/{envDetailsName}")
+  public ResponseEntity<EnvDetailsResponse> readByName(
+      @PathVariable final String appName,
+      @PathVariable final String envDetailsName,
+      @RequestParam(required = false) final List<String> fields) {
+    try {
+      if (!isValidProjection(fields)) {
+        log.error(
+            "Read By Name Validation Error: [{}] | [{}] | [{}]", appName, envDetailsName, fields);
+        return ResponseEntity.badRequest()
+            .body(EnvDetailsResponse.builder().errMsg("Env Details Validation Error").build());
+      }
+      EnvDetails envDetails = envDetailsStore.findByName(appName, envDetailsName, fields);
+      if (envDetails == null) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+            .body(EnvDetailsResponse.builder().errMsg("Env Details Not Found").build());
+      }
+      // the version to send as If-Match of updates, a projection does not return it
+      if (CollectionUtils.isEmpty(fields)) {
+        return ResponseEntity.ok()
+            .eTag(getVersionETag(envDetails))
+            .body(EnvDetailsResponse.builder().envDetails(List.of(envDetails)).build());
+      }
+      return ResponseEntity.ok(
+          EnvDetailsResponse.builder().envDetails(List.of(envDetails)).build());
+    } catch (Exception ex) {
+      log.error("Read By Name Exception: [{}] | [{}]", appName, envDetailsName, ex);
+      return ResponseEntity.internalServerError()
+          .body(
+              EnvDetailsResponse.builder()
+                  .errMsg("Read By Name Exception: " + ex.getMessage())
+                  .build());
+    }
+  }
+
+  @GetMapping(params = "apps")
+  public ResponseEntity<EnvDetailsAppsResponse> readApps(@RequestParam final List<String> apps) {
+    List<String> appNames =
+        apps.stream().map(String::trim).filter(StringUtils::hasText).distinct().toList();
+    if (appNames.isEmpty() || appNames.size() > envServiceProperties.getRead().getMaxApps()) {
+      log.error("Read Apps Validation Error: [{}]", apps);
+      return ResponseEntity.badRequest()
+          .body(
+              EnvDetailsAppsResponse.builder()
+                  .errMsg(
+                      "Read Apps Validation Error: Between 1 and "
+                          + envServiceProperties.getRead().getMaxApps()
+                          + " apps allowed")
+                  .build());
+    }
+
+    // each app is its own collection, so fetch them concurrently on virtual threads
+    try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+      Set<String> staleAppNames = ConcurrentHashMap.newKeySet();
+      Map<String, Future<AppEnvDetails>> futures = new LinkedHashMap<>();
+      appNames.forEach(
+          appName ->
+              futures.put(appName, executorService.submit(() -> findAll(appName, staleAppNames))));
+
+      Map<String, List<EnvDetails>> appEnvDetails = new LinkedHashMap<>();
+      for (Map.Entry<String, Future<AppEnvDetails>> future : futures.entrySet()) {
+        appEnvDetails.put(future.getKey(), future.getValue().get().envDetails());
+      }
+      return ResponseEntity.ok()
+          .headers(headers -> setStaleHeader(headers, staleAppNames))
+          .body(EnvDetailsAppsResponse.builder().appEnvDetails(appEnvDetails).build());
+    } catch (Exception ex) {
+      Throwable cause = ex instanceof ExecutionException ? ex.getCause() : ex;
+      log.error("Read Apps Exception: [{}]", appNames, cause);
+      if (ex instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
+      return ResponseEntity.internalServerError()
+          .body(
+              EnvDetailsAppsResponse.builder()
+                  .errMsg("Read Apps Exception: " + cause.getMessage())
+                  .build());
+    }
+  }
+
+  @PutMapping("/{appName}/{envDetailsName}")
   public ResponseEntity<EnvDetailsResponse> update(
       @PathVariable final String appName,
-      @PathVariable final String id,
+      @PathVariable final String envDetailsName,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) final String ifMatch,
       @RequestBody final EnvDetails envDetails) {
-    log.error("Update Exception! Update not available!! Delete and Create!!!");
-    return new ResponseEntity<>(
-        EnvDetailsResponse.builder()
-            .errMsg("Update Exception! Update not available!! Delete and Create!!!")
-            .build(),
-        HttpStatus.METHOD_NOT_ALLOWED);
+    try {
+      if (envDetails.getName() != null && !envDetails.getName().equals(envDetailsName)) {
+        log.error("Env Details Name Mismatch: [{}] | [{}]", appName, envDetailsName);
+        return ResponseEntity.badRequest()
+            .body(EnvDetailsResponse.builder().errMsg("Env Details Validation Error").build());
+      }
+      envDetails.setName(envDetailsName);
+      if (!isValidEnvDetails(appName, envDetails)) {
+        log.error("Env Details Validation Error: [{}] | [{}]", appName, envDetailsName);
+        return ResponseEntity.badRequest()
+            .body(EnvDetailsResponse.builder().errMsg("Env Details Validation Error").build());
+      }
+
+      // If-Match carries the version (ETag) the client last read, * or no header updates any
+      Long expectedVersion = null;
+      if (StringUtils.hasText(ifMatch) && !"*".equals(ifMatch.trim())) {
+        expectedVersion = parseVersionETag(ifMatch);
+        if (expectedVersion == null) {
+          return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+              .body(EnvDetailsResponse.builder().errMsg("Env Details Version Mismatch").build());
+        }
+      }
+
+      // single atomic update, readers see either the old or the new values
+      EnvDetails envDetailsUpdated = envDetailsStore.update(appName, envDetails, expectedVersion);
+
+      if (envDetailsUpdated == null) {
+        if (StringUtils.hasText(ifMatch) && envDetailsStore.exists(appName, envDetailsName)) {
+          log.error("Env Details Version Mismatch: [{}] | [{}]", appName, envDetailsName);
+          return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+              .body(EnvDetailsResponse.builder().errMsg("Env Details Version Mismatch").build());
+        }
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+            .body(EnvDetailsResponse.builder().errMsg("Env Details Not Found").build());
+      }
+
+      onEnvDetailsChanged(appName);
+      return ResponseEntity.ok()
+          .eTag(getVersionETag(envDetailsUpdated))
+          .body(EnvDetailsResponse.builder().envDetails(List.of(envDetailsUpdated)).build());
+    } catch (Exception ex) {
+      log.error("Update Exception: [{}] | [{}]", appName, envDetailsName, ex);
+      return ResponseEntity.internalServerError()
+          .body(
+              EnvDetailsResponse.builder().errMsg("Update Exception: " + ex.getMessage()).build());
+    }
   }
 
   @DeleteMapping("/{appName}/{envDetailsName}")
   public ResponseEntity<EnvDetailsResponse> delete(
       @PathVariable final String appName, @PathVariable final String envDetailsName) {
     try {
-      mongoTemplate.remove(
-          new Query(Criteria.where("name").is(envDetailsName)), getAppCollectionName(appName));
+      envDetailsStore.delete(appName, envDetailsName);
+      onEnvDetailsChanged(appName);
       return ResponseEntity.ok().build();
     } catch (Exception ex) {
       log.error("Delete Exception: [{}] | [{}]", appName, envDetailsName, ex);
@@ -149,7 +502,60 @@ public class EnvDetailsController {
     }
   }
 
-  private boolean validateEnvDetails(final String appName, final EnvDetails envDetails) {
+  // serves the last known good env details of appName when they cannot be read from the store
+  private AppEnvDetails findAll(final String appName, final Set<String> staleAppNames) {
+    try {
+      AppEnvDetails appEnvDetails = envDetailsCacheService.findAll(appName);
+      // loaded from the snapshot file on startup and not reloaded from the store yet
+      if (envDetailsSnapshotService.isLoadedFromFile(appName, appEnvDetails)) {
+        staleAppNames.add(appName);
+      }
+      return appEnvDetails;
+    } catch (RuntimeException ex) {
+      AppEnvDetails appEnvDetails = envDetailsSnapshotService.getLastKnownGood(appName);
+      if (appEnvDetails == null) {
+        throw ex;
+      }
+      log.error("Read Exception, Serving Last Known Good: [{}]", appName, ex);
+      staleAppNames.add(appName);
+      return appEnvDetails;
+    }
+  }
+
+  private void setStaleHeader(final HttpHeaders headers, final Set<String> staleAppNames) {
+    if (!staleAppNames.isEmpty()) {
+      headers.set(HEADER_ENV_DETAILS_STALE, String.join(",", staleAppNames));
+    }
+  }
+
+  private void onEnvDetailsChanged(final String appName) {
+    // evict first so that listeners reading the app see the change
+    envDetailsCacheService.evict(appName);
+    applicationEventPublisher.publishEvent(new EnvDetailsChangedEvent(appName));
+  }
+
+  // validates the whole batch in memory, only the first of duplicate names is inserted
+  // returns the indexes to insert, statuses of the others are set to INVALID or DUPLICATE
+  static List<Integer> validateEnvDetailsBatch(
+      final String appName,
+      final List<EnvDetails> envDetailsList,
+      final EnvDetailsBatchStatus.Status[] statuses) {
+    List<Integer> insertIndexes = new ArrayList<>();
+    Set<String> names = new HashSet<>();
+    for (int i = 0; i < envDetailsList.size(); i++) {
+      EnvDetails envDetails = envDetailsList.get(i);
+      if (!isValidEnvDetails(appName, envDetails)) {
+        statuses[i] = EnvDetailsBatchStatus.Status.INVALID;
+      } else if (!names.add(envDetails.getName())) {
+        statuses[i] = EnvDetailsBatchStatus.Status.DUPLICATE;
+      } else {
+        insertIndexes.add(i);
+      }
+    }
+    return insertIndexes;
+  }
+
+  static boolean isValidEnvDetails(final String appName, final EnvDetails envDetails) {
     // name is required
     if (!StringUtils.hasText(envDetails.getName())) {
       log.error("Env Details Name is missing: [{}]", appName);
@@ -162,18 +568,22 @@ public class EnvDetailsController {
       log.error("Env Details Values are missing: [{}] | [{}]", appName, envDetails.getName());
       return false;
     }
-    // do not allow to save multiple documents with same name
-    List<EnvDetails> envDetailsList =
-        mongoTemplate.findAll(EnvDetails.class, getAppCollectionName(appName));
+    return true;
+  }
 
-    if (envDetailsList.isEmpty()) {
-      return true;
-    }
+  private boolean isValidProjection(final List<String> fields) {
+    return fields == null || PROJECTION_FIELDS.containsAll(fields);
+  }
 
-    return envDetailsList.stream()
-            .filter(envDetail -> envDetail.getName().equals(envDetails.getName()))
-            .findFirst()
-            .orElse(null)
-        == null;
+  private String getVersionETag(final EnvDetails envDetails) {
+    return String.valueOf(envDetails.getVersion() == null ? 0 : envDetails.getVersion());
+  }
+
+  private Long parseVersionETag(final String eTag) {
+    try {
+      return Long.parseLong(eTag.trim().replace("\"", ""));
+    } catch (NumberFormatException ex) {
+      return null;
+    }
   }
 }
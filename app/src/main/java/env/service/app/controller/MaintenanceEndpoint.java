@@ -0,0 +1,32 @@
+package env.service.app.controller;
+
+import env.service.app.model.MaintenanceResult;
+import env.service.app.service.CollectionMaintenanceService;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the empty collections cleanup at /actuator/maintenance. GET returns the result of the
+ * last run, POST runs it now, with {"dryRun": true} to only report what would be dropped.
+ */
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "maintenance")
+public class MaintenanceEndpoint {
+
+  private final CollectionMaintenanceService collectionMaintenanceService;
+
+  @ReadOperation
+  public MaintenanceResult lastResult() {
+    return collectionMaintenanceService.getLastResult();
+  }
+
+  @WriteOperation
+  public MaintenanceResult run(@Nullable final Boolean dryRun) {
+    return collectionMaintenanceService.dropEmptyCollections(Boolean.TRUE.equals(dryRun));
+  }
+}
@@ -0,0 +1,5 @@
+package env.service.app.model;
+
+import java.util.List;
+
+public record AppEnvDetails(List<EnvDetails> envDetails, String version) {}
@@ -0,0 +1,4 @@
+package env.service.app.model;
+
+// bytes are shared by every read of the same app version, they must not be modified
+public record EncodedEnvDetailsResponse(byte[] bytes, boolean isGzip) {}
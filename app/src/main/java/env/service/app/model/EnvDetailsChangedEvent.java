@@ -0,0 +1,3 @@
+package env.service.app.model;
+
+public record EnvDetailsChangedEvent(String appName) {}
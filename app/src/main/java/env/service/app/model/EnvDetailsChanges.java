@@ -0,0 +1,12 @@
+package env.service.app.model;
+
+import java.util.List;
+
+// documents of an app written and names deleted after a revision, up to revision
+public record EnvDetailsChanges(
+    long revision, boolean isResyncRequired, List<EnvDetails> upserts, List<String> deletions) {
+
+  public static EnvDetailsChanges resync(final long revision) {
+    return new EnvDetailsChanges(revision, true, List.of(), List.of());
+  }
+}
@@ -0,0 +1,22 @@
+package env.service.app.model;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaintenanceResult implements Serializable {
+  private Instant startedAt;
+  private boolean dryRun;
+  private int collectionsScanned;
+  private List<String> collectionsDropped;
+  private int collectionsFailed;
+  private long durationMillis;
+}
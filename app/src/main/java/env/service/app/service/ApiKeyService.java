@@ -0,0 +1,70 @@
+package env.service.app.service;
+
+import static env.service.app.util.CommonUtils.getSha256Hex;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import env.service.app.config.ApiKeyAuthentication;
+import env.service.app.config.EnvServiceProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+public class ApiKeyService {
+
+  private static final char CLIENT_ID_SEPARATOR = '.';
+
+  private final EnvServiceProperties envServiceProperties;
+  private final PasswordEncoder passwordEncoder =
+      PasswordEncoderFactories.createDelegatingPasswordEncoder();
+  // SHA-256 of the full API key to its authentication, only successful verifications are cached
+  private final Cache<String, ApiKeyAuthentication> verifiedApiKeys;
+
+  public ApiKeyService(final EnvServiceProperties envServiceProperties) {
+    this.envServiceProperties = envServiceProperties;
+    this.verifiedApiKeys =
+        Caffeine.newBuilder()
+            .maximumSize(envServiceProperties.getApiKeys().getCacheMaxSize())
+            .expireAfterWrite(envServiceProperties.getApiKeys().getCacheTtl())
+            .build();
+  }
+
+  /**
+   * Verifies an API key in the form of [client id].[secret]. The client is looked up by its id and
+   * the secret is checked against its hash with the password encoder, which is slow by design, so a
+   * successful verification is cached for a short time. Returns null if the key is not valid.
+   */
+  public ApiKeyAuthentication authenticate(final String apiKey) {
+    final String apiKeyHash = getSha256Hex(apiKey);
+    final ApiKeyAuthentication apiKeyAuthentication = verifiedApiKeys.getIfPresent(apiKeyHash);
+    if (apiKeyAuthentication != null) {
+      return apiKeyAuthentication;
+    }
+
+    final int separatorIndex = apiKey.indexOf(CLIENT_ID_SEPARATOR);
+    if (separatorIndex <= 0) {
+      return null;
+    }
+    final String clientId = apiKey.substring(0, separatorIndex);
+    final EnvServiceProperties.ApiKeys.Client client =
+        envServiceProperties.getApiKeys().getClients().get(clientId);
+    if (client == null
+        || client.getSecretHash() == null
+        || !passwordEncoder.matches(apiKey.substring(separatorIndex + 1), client.getSecretHash())) {
+      log.info("API Key Verification Failed: [{}]", clientId);
+      return null;
+    }
+
+    final ApiKeyAuthentication apiKeyAuthenticationVerified =
+        new ApiKeyAuthentication(clientId, client.getAppNames());
+    verifiedApiKeys.put(apiKeyHash, apiKeyAuthenticationVerified);
+    return apiKeyAuthenticationVerified;
+  }
+
+  public void invalidate() {
+    verifiedApiKeys.invalidateAll();
+  }
+}
@@ -0,0 +1,86 @@
+package env.service.app.service;
+
+import env.service.app.store.EnvDetailsStore;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AppRegistryService {
+
+  private final EnvDetailsStore envDetailsStore;
+  // null until the first successful load from the store
+  private volatile NavigableSet<String> appNames;
+
+  @EventListener(ApplicationReadyEvent.class)
+  void loadAppNames() {
+    try {
+      refresh();
+    } catch (Exception ex) {
+      log.error("Load App Names Exception", ex);
+    }
+  }
+
+  @Scheduled(
+      fixedDelayString = "${envsvc.registry.refresh-interval:PT5M}",
+      initialDelayString = "${envsvc.registry.refresh-interval:PT5M}")
+  void refreshAppNames() {
+    try {
+      refresh();
+    } catch (Exception ex) {
+      log.error("Refresh App Names Exception", ex);
+    }
+  }
+
+  public void refresh() {
+    final NavigableSet<String> appNamesRefreshed =
+        new ConcurrentSkipListSet<>(envDetailsStore.getAppNames());
+    appNames = appNamesRefreshed;
+    log.debug("Refreshed App Names: [{}]", appNamesRefreshed.size());
+  }
+
+  public List<String> getAppNames(final String prefix) {
+    NavigableSet<String> appNamesCurrent = appNames;
+    if (appNamesCurrent == null) {
+      refresh();
+      appNamesCurrent = appNames;
+    }
+    if (!StringUtils.hasText(prefix)) {
+      return List.copyOf(appNamesCurrent);
+    }
+    return List.copyOf(appNamesCurrent.subSet(prefix, true, prefix + Character.MAX_VALUE, true));
+  }
+
+  public boolean contains(final String appName) {
+    final NavigableSet<String> appNamesCurrent = appNames;
+    return appNamesCurrent != null && appNamesCurrent.contains(appName);
+  }
+
+  public void add(final String appName) {
+    final NavigableSet<String> appNamesCurrent = appNames;
+    if (appNamesCurrent != null) {
+      appNamesCurrent.add(appName);
+    }
+  }
+
+  public void remove(final String appName) {
+    final NavigableSet<String> appNamesCurrent = appNames;
+    if (appNamesCurrent != null && appName != null) {
+      appNamesCurrent.remove(appName);
+    }
+  }
+
+  /** Discards the app names held in memory, the next lookup loads them from the store again. */
+  public void invalidate() {
+    appNames = null;
+  }
+}
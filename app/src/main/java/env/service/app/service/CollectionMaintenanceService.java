@@ -0,0 +1,163 @@
+package env.service.app.service;
+
+import static env.service.app.util.CommonUtils.getAppCollectionName;
+import static env.service.app.util.CommonUtils.getAppName;
+
+import env.service.app.config.EnvServiceProperties;
+import env.service.app.model.MaintenanceResult;
+import env.service.app.store.EnvDetailsStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CollectionMaintenanceService {
+
+  private final EnvDetailsStore envDetailsStore;
+  private final EnvDetailsCacheService envDetailsCacheService;
+  private final EnvDetailsSnapshotService envDetailsSnapshotService;
+  private final AppRegistryService appRegistryService;
+  private final EnvServiceProperties envServiceProperties;
+  private final MeterRegistry meterRegistry;
+  private final AtomicBoolean running = new AtomicBoolean();
+  private volatile MaintenanceResult lastResult;
+
+  @Scheduled(cron = "${envsvc.maintenance.cron:0 0 22 * * *}")
+  void cleanupEmptyCollections() {
+    try {
+      dropEmptyCollections(false);
+    } catch (Exception ex) {
+      log.error("Cleanup Empty Collections Exception", ex);
+    }
+  }
+
+  public MaintenanceResult getLastResult() {
+    return lastResult;
+  }
+
+  /**
+   * Drops the app collections that have no documents. Collections are probed for a single document
+   * instead of counted, and are checked concurrently up to the configured parallelism. A dry run
+   * only reports the collections that would be dropped.
+   */
+  public MaintenanceResult dropEmptyCollections(final boolean dryRun) {
+    if (!running.compareAndSet(false, true)) {
+      throw new IllegalStateException("Maintenance Already Running");
+    }
+    try {
+      final Instant startedAt = Instant.now();
+      final long startTime = System.nanoTime();
+      final List<String> collectionNames =
+          envDetailsStore.getAppNames().stream()
+              .sorted()
+              .map(appName -> getAppCollectionName(appName))
+              .toList();
+
+      final Map<String, Future<Boolean>> futures = new LinkedHashMap<>();
+      final List<String> collectionsDropped = new ArrayList<>();
+      int collectionsFailed = 0;
+      try (ExecutorService executorService =
+          Executors.newFixedThreadPool(
+              envServiceProperties.getMaintenance().getParallelism(),
+              Thread.ofVirtual().name("maintenance-", 0).factory())) {
+        for (String collectionName : collectionNames) {
+          futures.put(
+              collectionName, executorService.submit(() -> dropIfEmpty(collectionName, dryRun)));
+        }
+        for (Map.Entry<String, Future<Boolean>> future : futures.entrySet()) {
+          try {
+            if (future.getValue().get()) {
+              collectionsDropped.add(future.getKey());
+            }
+          } catch (ExecutionException ex) {
+            collectionsFailed++;
+            log.error("Drop Empty Collection Exception: [{}]", future.getKey(), ex.getCause());
+          }
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Maintenance Interrupted", ex);
+      }
+
+      final long durationNanos = System.nanoTime() - startTime;
+      final MaintenanceResult maintenanceResult =
+          MaintenanceResult.builder()
+              .startedAt(startedAt)
+              .dryRun(dryRun)
+              .collectionsScanned(collectionNames.size())
+              .collectionsDropped(collectionsDropped)
+              .collectionsFailed(collectionsFailed)
+              .durationMillis(TimeUnit.NANOSECONDS.toMillis(durationNanos))
+              .build();
+      recordMetrics(maintenanceResult, durationNanos);
+      lastResult = maintenanceResult;
+      log.info(
+          "Dropped Empty Collections: DryRun=[{}] | Scanned=[{}] | Dropped=[{}] | Failed=[{}] |"
+              + " Duration=[{}ms]",
+          dryRun,
+          collectionNames.size(),
+          collectionsDropped,
+          collectionsFailed,
+          maintenanceResult.getDurationMillis());
+      return maintenanceResult;
+    } finally {
+      running.set(false);
+    }
+  }
+
+  private boolean dropIfEmpty(final String collectionName, final boolean dryRun) {
+    final String appName = getAppName(collectionName);
+    // checked again by the drop, with writes held off, a write may land after the first check
+    if (!envDetailsStore.isEmpty(appName)) {
+      return false;
+    }
+    if (!dryRun) {
+      if (!envDetailsStore.dropIfEmpty(appName)) {
+        return false;
+      }
+      appRegistryService.remove(appName);
+      envDetailsCacheService.evict(appName);
+      envDetailsSnapshotService.remove(appName);
+      log.info("Dropped Empty Collection: [{}]", collectionName);
+    }
+    return true;
+  }
+
+  private void recordMetrics(final MaintenanceResult maintenanceResult, final long durationNanos) {
+    final String dryRun = String.valueOf(maintenanceResult.isDryRun());
+    Timer.builder("envsvc.maintenance.duration")
+        .description("Time taken to scan and drop empty app collections")
+        .tag("dryRun", dryRun)
+        .register(meterRegistry)
+        .record(durationNanos, TimeUnit.NANOSECONDS);
+    Counter.builder("envsvc.maintenance.collections.scanned")
+        .tag("dryRun", dryRun)
+        .register(meterRegistry)
+        .increment(maintenanceResult.getCollectionsScanned());
+    Counter.builder("envsvc.maintenance.collections.dropped")
+        .tag("dryRun", dryRun)
+        .register(meterRegistry)
+        .increment(maintenanceResult.getCollectionsDropped().size());
+    Counter.builder("envsvc.maintenance.collections.failed")
+        .tag("dryRun", dryRun)
+        .register(meterRegistry)
+        .increment(maintenanceResult.getCollectionsFailed());
+  }
+}
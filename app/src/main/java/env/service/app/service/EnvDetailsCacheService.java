@@ -0,0 +1,84 @@
+package env.service.app.service;
+
+import static env.service.app.util.CommonUtils.getEnvDetailsVersion;
+import static env.service.app.util.ConstantUtils.CACHE_ENV_DETAILS;
+
+import env.service.app.model.AppEnvDetails;
+import env.service.app.model.EnvDetails;
+import env.service.app.store.EnvDetailsStore;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+/**
+ * Read cache of the env details of each app. Every evict of an app counts as a write of it, so a
+ * load that started before a write is returned but not put in the cache, otherwise it could put the
+ * env details from before the write back after the evict.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EnvDetailsCacheService {
+
+  private final EnvDetailsStore envDetailsStore;
+  private final CacheManager cacheManager;
+  // number of evicts of each app, only apps evicted at least once
+  private final Map<String, Long> writeCounts = new ConcurrentHashMap<>();
+
+  public AppEnvDetails findAll(final String appName) {
+    final AppEnvDetails appEnvDetails = getCache().get(appName, AppEnvDetails.class);
+    if (appEnvDetails != null) {
+      return appEnvDetails;
+    }
+    log.debug("Env Details Cache Miss: [{}]", appName);
+    return loadAndPut(appName);
+  }
+
+  /** Reloads appName into the cache, the cached entry is kept if the store cannot be read. */
+  public AppEnvDetails refresh(final String appName) {
+    log.debug("Env Details Cache Refresh: [{}]", appName);
+    return loadAndPut(appName);
+  }
+
+  public void evict(final String appName) {
+    log.debug("Env Details Cache Evict: [{}]", appName);
+    writeCounts.compute(
+        appName,
+        (key, writeCount) -> {
+          getCache().evict(appName);
+          return writeCount == null ? 1L : writeCount + 1;
+        });
+  }
+
+  private AppEnvDetails loadAndPut(final String appName) {
+    final long writeCount = writeCounts.getOrDefault(appName, 0L);
+    final AppEnvDetails appEnvDetails = load(appName);
+    // the check and the put are atomic with evict
+    writeCounts.compute(
+        appName,
+        (key, value) -> {
+          if ((value == null ? 0L : value) == writeCount) {
+            getCache().put(appName, appEnvDetails);
+          } else {
+            log.debug("Env Details Cache Put Skipped, Written While Loading: [{}]", appName);
+          }
+          return value;
+        });
+    return appEnvDetails;
+  }
+
+  private AppEnvDetails load(final String appName) {
+    List<EnvDetails> envDetailsList = List.copyOf(envDetailsStore.findAll(appName));
+    return new AppEnvDetails(envDetailsList, getEnvDetailsVersion(envDetailsList));
+  }
+
+  private Cache getCache() {
+    return Objects.requireNonNull(cacheManager.getCache(CACHE_ENV_DETAILS));
+  }
+}
@@ -0,0 +1,158 @@
+package env.service.app.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import env.service.app.model.AppEnvDetails;
+import env.service.app.model.EncodedEnvDetailsResponse;
+import env.service.app.model.EnvDetailsResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+/**
+ * Read responses of each app encoded once, in each format and gzipped, so reads of an app that has
+ * not changed write the same bytes without running Jackson. The bytes are kept for as long as the
+ * AppEnvDetails they were encoded from, which is replaced in the read cache when the app changes.
+ */
+@Slf4j
+@Service
+public class EnvDetailsEncodingService {
+
+  public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+  private static final String GZIP = "gzip";
+
+  private final Map<MediaType, ObjectMapper> objectMappers = new LinkedHashMap<>();
+  private final boolean isCompressionEnabled;
+  private final long compressionMinResponseSize;
+  // weak keys are compared by identity, entries are dropped once their AppEnvDetails is not used
+  private final Cache<AppEnvDetails, EncodedResponses> encodedResponses =
+      Caffeine.newBuilder().weakKeys().build();
+
+  public EnvDetailsEncodingService(
+      final JsonMapper jsonMapper,
+      @Value("${server.compression.enabled:false}") final boolean isCompressionEnabled,
+      @Value("${server.compression.min-response-size:2KB}")
+          final DataSize compressionMinResponseSize) {
+    // the same mappers as the message converters, json first as it is the default
+    objectMappers.put(MediaType.APPLICATION_JSON, jsonMapper);
+    objectMappers.put(APPLICATION_SMILE, SmileMapper.builder().findAndAddModules().build());
+    objectMappers.put(MediaType.APPLICATION_CBOR, CBORMapper.builder().findAndAddModules().build());
+    this.isCompressionEnabled = isCompressionEnabled;
+    this.compressionMinResponseSize = compressionMinResponseSize.toBytes();
+  }
+
+  /** Returns the first of the formats read responses are encoded in that is acceptable, or null. */
+  public MediaType getMediaType(final List<MediaType> acceptableMediaTypes) {
+    for (MediaType acceptableMediaType : acceptableMediaTypes) {
+      for (MediaType mediaType : objectMappers.keySet()) {
+        if (acceptableMediaType.isCompatibleWith(mediaType)) {
+          return mediaType;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the read response of appEnvDetails encoded as mediaType. It is gzipped when gzip is
+   * accepted and the response is as large as server.compression.min-response-size, unless
+   * server.compression is disabled.
+   */
+  public EncodedEnvDetailsResponse getEncodedResponse(
+      final AppEnvDetails appEnvDetails, final MediaType mediaType, final boolean isGzipAccepted) {
+    final EncodedResponses encoded =
+        encodedResponses.get(appEnvDetails, key -> new EncodedResponses());
+    // looked up before computeIfAbsent so reads of encoded responses do not allocate
+    EncodedEnvDetailsResponse encodedResponse = encoded.identity().get(mediaType);
+    if (encodedResponse == null) {
+      encodedResponse =
+          encoded
+              .identity()
+              .computeIfAbsent(
+                  mediaType,
+                  key -> new EncodedEnvDetailsResponse(encode(appEnvDetails, mediaType), false));
+    }
+    if (!isGzipAccepted
+        || !isCompressionEnabled
+        || encodedResponse.bytes().length < compressionMinResponseSize) {
+      return encodedResponse;
+    }
+    EncodedEnvDetailsResponse encodedResponseGzip = encoded.gzip().get(mediaType);
+    if (encodedResponseGzip == null) {
+      final byte[] bytes = encodedResponse.bytes();
+      encodedResponseGzip =
+          encoded
+              .gzip()
+              .computeIfAbsent(mediaType, key -> new EncodedEnvDetailsResponse(gzip(bytes), true));
+    }
+    return encodedResponseGzip;
+  }
+
+  /** Returns true if gzip is listed in acceptEncoding and not with q=0. */
+  public boolean isGzipAccepted(final String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      final String[] parameters = coding.split(";");
+      if (GZIP.equalsIgnoreCase(parameters[0].trim())) {
+        for (int i = 1; i < parameters.length; i++) {
+          final String parameter = parameters[i].trim().replace(" ", "");
+          if (parameter.startsWith("q=") && parameter.substring(2).matches("0(\\.0*)?")) {
+            return false;
+          }
+        }
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private byte[] encode(final AppEnvDetails appEnvDetails, final MediaType mediaType) {
+    log.debug("Encode Env Details Response: [{}] | [{}]", appEnvDetails.version(), mediaType);
+    return objectMappers
+        .get(mediaType)
+        .writeValueAsBytes(
+            EnvDetailsResponse.builder().envDetails(appEnvDetails.envDetails()).build());
+  }
+
+  private byte[] gzip(final byte[] bytes) {
+    final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(bytes.length / 4);
+    // compressed once and served many times, so the best compression is worth its time
+    try (GZIPOutputStream gzipOutputStream =
+        new GZIPOutputStream(byteArrayOutputStream) {
+          {
+            def.setLevel(Deflater.BEST_COMPRESSION);
+          }
+        }) {
+      gzipOutputStream.write(bytes);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return byteArrayOutputStream.toByteArray();
+  }
+
+  private record EncodedResponses(
+      Map<MediaType, EncodedEnvDetailsResponse> identity,
+      Map<MediaType, EncodedEnvDetailsResponse> gzip) {
+    EncodedResponses() {
+      this(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    }
+  }
+}
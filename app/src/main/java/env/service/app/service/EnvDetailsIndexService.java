@@ -0,0 +1,92 @@
+package env.service.app.service;
+
+import static env.service.app.util.CommonUtils.getAppCollectionName;
+import static env.service.app.util.ConstantUtils.APP_COLLECTION_PREFIX;
+import static env.service.app.util.ConstantUtils.TOMBSTONES_COLLECTION;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(
+    prefix = "envsvc.storage",
+    name = "type",
+    havingValue = "mongo",
+    matchIfMissing = true)
+public class EnvDetailsIndexService {
+
+  private final MongoTemplate mongoTemplate;
+  private final Set<String> indexedCollectionNames = ConcurrentHashMap.newKeySet();
+
+  @EventListener(ApplicationReadyEvent.class)
+  void ensureNameIndexes() {
+    try {
+      for (String collectionName : mongoTemplate.getCollectionNames()) {
+        if (collectionName.startsWith(APP_COLLECTION_PREFIX)) {
+          ensureNameIndexForCollection(collectionName);
+        }
+      }
+    } catch (Exception ex) {
+      log.error("Ensure Name Indexes Exception", ex);
+    }
+  }
+
+  // tombstones are looked up by app and revision, and removed by MongoDB once expireAt has passed
+  @EventListener(ApplicationReadyEvent.class)
+  void ensureTombstoneIndexes() {
+    try {
+      final IndexOperations indexOperations = mongoTemplate.indexOps(TOMBSTONES_COLLECTION);
+      indexOperations.createIndex(
+          new Index().on("appName", Sort.Direction.ASC).on("name", Sort.Direction.ASC).unique());
+      indexOperations.createIndex(
+          new Index().on("appName", Sort.Direction.ASC).on("revision", Sort.Direction.ASC));
+      indexOperations.createIndex(
+          new Index().on("expireAt", Sort.Direction.ASC).expire(Duration.ZERO));
+    } catch (Exception ex) {
+      log.error("Ensure Tombstone Indexes Exception", ex);
+    }
+  }
+
+  /**
+   * Makes sure the collection for appName has a unique index on name, and an index on revision for
+   * reads of changes, creating them the first time the app is written to. Returns false if the
+   * index could not be created, e.g. because the collection already has documents with duplicate
+   * names.
+   */
+  public boolean ensureNameIndex(final String appName) {
+    return ensureNameIndexForCollection(getAppCollectionName(appName));
+  }
+
+  public void forgetNameIndex(final String collectionName) {
+    indexedCollectionNames.remove(collectionName);
+  }
+
+  private boolean ensureNameIndexForCollection(final String collectionName) {
+    if (indexedCollectionNames.contains(collectionName)) {
+      return true;
+    }
+    try {
+      final IndexOperations indexOperations = mongoTemplate.indexOps(collectionName);
+      indexOperations.createIndex(new Index().on("name", Sort.Direction.ASC).unique());
+      indexOperations.createIndex(new Index().on("revision", Sort.Direction.ASC));
+      indexedCollectionNames.add(collectionName);
+      return true;
+    } catch (Exception ex) {
+      log.error("Ensure Name Index Exception: [{}]", collectionName, ex);
+      return false;
+    }
+  }
+}
@@ -0,0 +1,207 @@
+package env.service.app.service;
+
+import static env.service.app.util.CommonUtils.getEnvDetailsVersion;
+import static env.service.app.util.CommonUtils.getStorageJsonMapper;
+import static env.service.app.util.ConstantUtils.CACHE_ENV_DETAILS;
+
+import env.service.app.config.EnvServiceProperties;
+import env.service.app.model.AppEnvDetails;
+import env.service.app.model.EnvDetails;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Last known good env details of every app, taken from the read cache and written to
+ * envsvc.snapshot.file. The file is loaded into the read cache before the server accepts requests,
+ * so the first reads after a restart do not wait for the store, and the loaded apps are then
+ * reloaded from the store in the background. Until an app is reloaded, reads of it from the cache
+ * are marked stale, as are reads that fail and are served from here.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EnvDetailsSnapshotService {
+
+  private static final TypeReference<Map<String, List<EnvDetails>>> SNAPSHOT_TYPE =
+      new TypeReference<>() {};
+
+  private final EnvDetailsCacheService envDetailsCacheService;
+  private final CacheManager cacheManager;
+  private final EnvServiceProperties envServiceProperties;
+  private final MeterRegistry meterRegistry;
+  private final JsonMapper jsonMapper = getStorageJsonMapper();
+  private final Map<String, AppEnvDetails> lastKnownGood = new ConcurrentHashMap<>();
+  // put in the read cache from the file, reloads replace the cached instance
+  private final Map<String, AppEnvDetails> loadedFromFile = new ConcurrentHashMap<>();
+  private volatile boolean isChanged;
+
+  @PostConstruct
+  void loadSnapshot() {
+    final Path file = getFile();
+    if (file == null || !Files.exists(file)) {
+      return;
+    }
+    try (InputStream inputStream = new GZIPInputStream(Files.newInputStream(file))) {
+      final Map<String, List<EnvDetails>> snapshot =
+          jsonMapper.readValue(inputStream, SNAPSHOT_TYPE);
+      final Cache cache = cacheManager.getCache(CACHE_ENV_DETAILS);
+      snapshot.forEach(
+          (appName, envDetailsList) -> {
+            final AppEnvDetails appEnvDetails =
+                new AppEnvDetails(
+                    List.copyOf(envDetailsList), getEnvDetailsVersion(envDetailsList));
+            lastKnownGood.put(appName, appEnvDetails);
+            if (cache != null && cache.putIfAbsent(appName, appEnvDetails) == null) {
+              loadedFromFile.put(appName, appEnvDetails);
+            }
+          });
+      log.info("Loaded Env Details Snapshot: [{}] | Apps=[{}]", file, snapshot.size());
+    } catch (Exception ex) {
+      // start cold rather than not at all
+      log.error("Load Env Details Snapshot Exception: [{}]", file, ex);
+    }
+  }
+
+  @Async
+  @EventListener(ApplicationReadyEvent.class)
+  public void reloadSnapshotApps() {
+    for (String appName : List.copyOf(lastKnownGood.keySet())) {
+      try {
+        envDetailsCacheService.refresh(appName);
+        loadedFromFile.remove(appName);
+      } catch (Exception ex) {
+        // keeps serving the snapshot, marked stale, until the cache entry expires
+        log.error("Reload Snapshot App Exception: [{}]", appName, ex);
+      }
+    }
+  }
+
+  @Scheduled(
+      fixedDelayString = "${envsvc.snapshot.interval:PT1M}",
+      initialDelayString = "${envsvc.snapshot.interval:PT1M}")
+  void takeSnapshot() {
+    try {
+      update();
+      save();
+    } catch (Exception ex) {
+      log.error("Take Env Details Snapshot Exception", ex);
+    }
+  }
+
+  @PreDestroy
+  void close() {
+    takeSnapshot();
+  }
+
+  /** Copies the apps in the read cache whose version changed since the last update. */
+  public void update() {
+    final Cache cache = cacheManager.getCache(CACHE_ENV_DETAILS);
+    if (cache == null
+        || !(cache.getNativeCache()
+            instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeineCache)) {
+      return;
+    }
+    caffeineCache
+        .asMap()
+        .forEach(
+            (appName, value) -> {
+              if (value instanceof AppEnvDetails appEnvDetails) {
+                final AppEnvDetails appEnvDetailsPrevious =
+                    lastKnownGood.put((String) appName, appEnvDetails);
+                if (appEnvDetailsPrevious == null
+                    || !appEnvDetailsPrevious.version().equals(appEnvDetails.version())) {
+                  isChanged = true;
+                }
+              }
+            });
+  }
+
+  /** Returns the last known good env details of appName, or null if there are none. */
+  public AppEnvDetails getLastKnownGood(final String appName) {
+    final AppEnvDetails appEnvDetails = lastKnownGood.get(appName);
+    if (appEnvDetails != null) {
+      Counter.builder("envsvc.snapshot.reads")
+          .description("Reads served from the last known good snapshot")
+          .register(meterRegistry)
+          .increment();
+    }
+    return appEnvDetails;
+  }
+
+  /**
+   * Returns true if appEnvDetails are the ones put in the read cache from the file, not yet
+   * replaced by a reload of appName from the store.
+   */
+  public boolean isLoadedFromFile(final String appName, final AppEnvDetails appEnvDetails) {
+    return loadedFromFile.get(appName) == appEnvDetails;
+  }
+
+  public void remove(final String appName) {
+    if (lastKnownGood.remove(appName) != null) {
+      isChanged = true;
+    }
+  }
+
+  /** Discards the env details held in memory, the file is left as it is. */
+  public void invalidate() {
+    lastKnownGood.clear();
+    loadedFromFile.clear();
+  }
+
+  private Path getFile() {
+    final String file = envServiceProperties.getSnapshot().getFile();
+    return StringUtils.hasText(file) ? Path.of(file) : null;
+  }
+
+  private void save() throws Exception {
+    final Path file = getFile();
+    if (file == null || !isChanged) {
+      return;
+    }
+    isChanged = false;
+    final Map<String, List<EnvDetails>> snapshot = new LinkedHashMap<>();
+    lastKnownGood.forEach(
+        (appName, appEnvDetails) -> snapshot.put(appName, appEnvDetails.envDetails()));
+    try {
+      if (file.getParent() != null) {
+        Files.createDirectories(file.getParent());
+      }
+      // written aside and moved in one step, a crash leaves the previous snapshot in place
+      final Path fileTemp = file.resolveSibling(file.getFileName() + ".tmp");
+      try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(fileTemp))) {
+        jsonMapper.writeValue(outputStream, snapshot);
+      }
+      Files.move(
+          fileTemp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      log.debug("Saved Env Details Snapshot: [{}] | Apps=[{}]", file, snapshot.size());
+    } catch (Exception ex) {
+      isChanged = true;
+      throw ex;
+    }
+  }
+}
@@ -0,0 +1,153 @@
+package env.service.app.service;
+
+import env.service.app.config.EnvServiceProperties;
+import env.service.app.model.AppEnvDetails;
+import env.service.app.model.EnvDetailsChangedEvent;
+import env.service.app.model.EnvDetailsResponse;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EnvDetailsWatchService {
+
+  private final EnvDetailsCacheService envDetailsCacheService;
+  private final EnvServiceProperties envServiceProperties;
+  private final Map<String, Set<Watcher>> appWatchers = new ConcurrentHashMap<>();
+  private final AtomicInteger subscriberCount = new AtomicInteger();
+
+  /**
+   * Registers a watcher for appName, returns null when the maximum number of subscribers is
+   * reached. The current snapshot is sent right away unless lastEventId shows that the client
+   * already has it.
+   */
+  public SseEmitter subscribe(final String appName, final String lastEventId) {
+    if (subscriberCount.incrementAndGet() > envServiceProperties.getWatch().getMaxSubscribers()) {
+      subscriberCount.decrementAndGet();
+      log.error("Watch Max Subscribers Reached: [{}]", appName);
+      return null;
+    }
+
+    final SseEmitter sseEmitter =
+        new SseEmitter(envServiceProperties.getWatch().getTimeout().toMillis());
+    final Watcher watcher = new Watcher(sseEmitter, lastEventId);
+    // registered before the snapshot is read, so that no change in between is missed
+    appWatchers.compute(
+        appName,
+        (key, watchers) -> {
+          Set<Watcher> appNameWatchers =
+              watchers == null ? ConcurrentHashMap.newKeySet() : watchers;
+          appNameWatchers.add(watcher);
+          return appNameWatchers;
+        });
+    sseEmitter.onCompletion(() -> unsubscribe(appName, watcher));
+    sseEmitter.onTimeout(() -> unsubscribe(appName, watcher));
+    sseEmitter.onError(ex -> unsubscribe(appName, watcher));
+
+    try {
+      sendCurrent(appName, watcher);
+    } catch (Exception ex) {
+      // the snapshot is sent with the next change event instead
+      log.error("Watch Snapshot Exception: [{}]", appName, ex);
+    }
+    return sseEmitter;
+  }
+
+  @Async
+  @EventListener
+  public void onEnvDetailsChanged(final EnvDetailsChangedEvent envDetailsChangedEvent) {
+    final String appName = envDetailsChangedEvent.appName();
+    final Set<Watcher> watchers = appWatchers.get(appName);
+    if (watchers == null || watchers.isEmpty()) {
+      return;
+    }
+    try {
+      // read from the cache for each watcher, which is a hit after the first
+      watchers.forEach(watcher -> sendCurrent(appName, watcher));
+    } catch (Exception ex) {
+      log.error("Watch Change Exception: [{}]", appName, ex);
+    }
+  }
+
+  @Scheduled(
+      fixedDelayString = "${envsvc.watch.heartbeat-interval:PT15S}",
+      initialDelayString = "${envsvc.watch.heartbeat-interval:PT15S}")
+  void sendHeartbeats() {
+    appWatchers.forEach(
+        (appName, watchers) ->
+            watchers.forEach(
+                watcher -> {
+                  try {
+                    watcher.sseEmitter.send(SseEmitter.event().comment("heartbeat"));
+                  } catch (Exception ex) {
+                    watcher.sseEmitter.completeWithError(ex);
+                  }
+                }));
+  }
+
+  // the env details are read while holding the watcher's lock, so of a snapshot and a change sent
+  // at the same time the last one sends the current version, and an older one is never sent last
+  private void sendCurrent(final String appName, final Watcher watcher) {
+    watcher.sendLock.lock();
+    try {
+      final AppEnvDetails appEnvDetails = envDetailsCacheService.findAll(appName);
+      if (!appEnvDetails.version().equals(watcher.sentVersion)) {
+        send(appName, watcher.sseEmitter, appEnvDetails);
+        watcher.sentVersion = appEnvDetails.version();
+      }
+    } finally {
+      watcher.sendLock.unlock();
+    }
+  }
+
+  private void send(
+      final String appName, final SseEmitter sseEmitter, final AppEnvDetails appEnvDetails) {
+    try {
+      sseEmitter.send(
+          SseEmitter.event()
+              .id(appEnvDetails.version())
+              .name("snapshot")
+              .data(
+                  EnvDetailsResponse.builder().envDetails(appEnvDetails.envDetails()).build(),
+                  MediaType.APPLICATION_JSON));
+    } catch (Exception ex) {
+      log.debug("Watch Send Exception: [{}]", appName, ex);
+      sseEmitter.completeWithError(ex);
+    }
+  }
+
+  private void unsubscribe(final String appName, final Watcher watcher) {
+    appWatchers.computeIfPresent(
+        appName,
+        (key, watchers) -> {
+          if (watchers.remove(watcher)) {
+            subscriberCount.decrementAndGet();
+          }
+          return watchers.isEmpty() ? null : watchers;
+        });
+  }
+
+  private static final class Watcher {
+    private final SseEmitter sseEmitter;
+    private final ReentrantLock sendLock = new ReentrantLock();
+    // id of the last event sent, or the Last-Event-ID the client reconnected with
+    private String sentVersion;
+
+    private Watcher(final SseEmitter sseEmitter, final String lastEventId) {
+      this.sseEmitter = sseEmitter;
+      this.sentVersion = lastEventId;
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package env.service.app.store;
+
+import env.service.app.model.EnvDetails;
+import env.service.app.model.EnvDetailsBatchStatus;
+import env.service.app.model.EnvDetailsChanges;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Storage of the env details of each app, selected by envsvc.storage.type. Apps are created by
+ * their first document and stay, even when empty, until they are dropped.
+ *
+ * <p>fields limits the values returned by name lookups to stringValue, listValue and mapValue, id
+ * and name are always returned. Implementations return copies, callers may modify them.
+ *
+ * <p>Every write of an app that writes something sets the revision of the documents it writes, and
+ * a delete leaves a tombstone with its revision, kept for envsvc.storage.tombstone-retention, so
+ * the changes after a revision can be found. Writes that write nothing leave the revision of the
+ * app as it is.
+ */
+public interface EnvDetailsStore {
+
+  List<String> getAppNames();
+
+  List<EnvDetails> findAll(String appName);
+
+  /** Documents of appName one at a time, the stream must be closed. */
+  Stream<EnvDetails> stream(String appName);
+
+  List<EnvDetails> findByNames(String appName, Collection<String> names, List<String> fields);
+
+  EnvDetails findByName(String appName, String name, List<String> fields);
+
+  boolean exists(String appName, String name);
+
+  /**
+   * Documents of appName written after revision since and names of documents deleted after it, up
+   * to the returned revision, which can be before the revision of appName while writes may still
+   * land. since 0 returns all documents, since equal to the revision of appName none. Resync is
+   * required when since is before the revision of appName and older than the tombstone retention,
+   * or after the revision of appName.
+   */
+  EnvDetailsChanges findChanges(String appName, long since);
+
+  /**
+   * Saves a new document, setting its id. Throws {@link
+   * org.springframework.dao.DuplicateKeyException} if appName already has a document with the same
+   * name.
+   */
+  EnvDetails create(String appName, EnvDetails envDetails);
+
+  /**
+   * Saves new documents with distinct names, returns the status of each in the same order: SUCCESS,
+   * DUPLICATE if appName already has a document with the same name, or ERROR.
+   */
+  List<EnvDetailsBatchStatus.Status> createAll(String appName, List<EnvDetails> envDetailsList);
+
+  /**
+   * Replaces the values of the document named envDetails.getName() and increments its version in
+   * one atomic step. With expectedVersion the document is only updated if its version matches, 0
+   * matches documents without a version. Returns the updated document, or null if there is no
+   * matching document.
+   */
+  EnvDetails update(String appName, EnvDetails envDetails, Long expectedVersion);
+
+  void delete(String appName, String name);
+
+  boolean isEmpty(String appName);
+
+  /**
+   * Drops appName if it has no documents, returns true if it was dropped. The check and the drop
+   * are one step for writes made through this store, so a document created meanwhile is not lost.
+   */
+  boolean dropIfEmpty(String appName);
+}
@@ -0,0 +1,546 @@
+package env.service.app.store;
+
+import static env.service.app.util.CommonUtils.getNextRevision;
+import static env.service.app.util.CommonUtils.getStorageJsonMapper;
+import static env.service.app.util.CommonUtils.isResyncRequired;
+
+import env.service.app.config.EnvServiceProperties;
+import env.service.app.model.EnvDetails;
+import env.service.app.model.EnvDetailsBatchStatus;
+import env.service.app.model.EnvDetailsChanges;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Keeps the env details in memory and in two files, so they are served without a network hop. Every
+ * write is appended to a log, one JSON record per line, before it is applied in memory. Once the
+ * log reaches envsvc.storage.local.compact-threshold records, the current documents are written to
+ * a new snapshot and the log is emptied. On startup the snapshot and then the log are memory mapped
+ * and replayed, a last record cut short by a crash is dropped.
+ *
+ * <p>Writes are serialized by one lock, reads are lock free: each app's documents are an immutable
+ * map that a write replaces, so a read sees either all or none of a write.
+ *
+ * <p>Tombstones of deleted documents are kept in memory and in the log, and written to the snapshot
+ * until they expire. The revision of an app is the latest revision of its documents and tombstones.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "envsvc.storage", name = "type", havingValue = "local")
+public class LocalEnvDetailsStore implements EnvDetailsStore {
+
+  static final String SNAPSHOT_FILE_NAME = "envdetails.snapshot";
+  static final String LOG_FILE_NAME = "envdetails.log";
+
+  private final Path directory;
+  private final boolean fsync;
+  private final int compactThreshold;
+  private final Duration tombstoneRetention;
+  private final JsonMapper jsonMapper;
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private final Map<String, Map<String, EnvDetails>> apps = new ConcurrentHashMap<>();
+  // revision of each deleted document by name, replaced by writes like apps
+  private final Map<String, Map<String, Long>> tombstones = new ConcurrentHashMap<>();
+  private final Map<String, Long> revisions = new ConcurrentHashMap<>();
+  private FileChannel logChannel;
+  private int logRecordCount;
+
+  public LocalEnvDetailsStore(final EnvServiceProperties envServiceProperties) {
+    final EnvServiceProperties.Storage.Local local = envServiceProperties.getStorage().getLocal();
+    this.directory = local.getDirectory();
+    this.fsync = local.isFsync();
+    this.compactThreshold = local.getCompactThreshold();
+    this.tombstoneRetention = envServiceProperties.getStorage().getTombstoneRetention();
+    this.jsonMapper = getStorageJsonMapper();
+  }
+
+  @PostConstruct
+  void open() throws IOException {
+    Files.createDirectories(directory);
+    replay(directory.resolve(SNAPSHOT_FILE_NAME), logRecord -> {});
+    final long logLength = replay(directory.resolve(LOG_FILE_NAME), logRecord -> logRecordCount++);
+    logChannel =
+        FileChannel.open(
+            directory.resolve(LOG_FILE_NAME), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    logChannel.truncate(logLength);
+    logChannel.position(logLength);
+    log.info(
+        "Opened Local Storage: [{}] | Apps=[{}] | LogRecords=[{}]",
+        directory.toAbsolutePath(),
+        apps.size(),
+        logRecordCount);
+  }
+
+  @PreDestroy
+  void close() throws IOException {
+    writeLock.lock();
+    try {
+      if (logChannel != null) {
+        logChannel.close();
+      }
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public List<String> getAppNames() {
+    return List.copyOf(apps.keySet());
+  }
+
+  @Override
+  public List<EnvDetails> findAll(final String appName) {
+    return getEnvDetails(appName).values().stream()
+        .map(envDetails -> copy(envDetails, null))
+        .toList();
+  }
+
+  @Override
+  public Stream<EnvDetails> stream(final String appName) {
+    return findAll(appName).stream();
+  }
+
+  @Override
+  public List<EnvDetails> findByNames(
+      final String appName, final Collection<String> names, final List<String> fields) {
+    final Set<String> nameSet = new HashSet<>(names);
+    return getEnvDetails(appName).values().stream()
+        .filter(envDetails -> nameSet.contains(envDetails.getName()))
+        .map(envDetails -> copy(envDetails, fields))
+        .toList();
+  }
+
+  @Override
+  public EnvDetails findByName(final String appName, final String name, final List<String> fields) {
+    final EnvDetails envDetails = getEnvDetails(appName).get(name);
+    return envDetails == null ? null : copy(envDetails, fields);
+  }
+
+  @Override
+  public boolean exists(final String appName, final String name) {
+    return getEnvDetails(appName).containsKey(name);
+  }
+
+  @Override
+  public EnvDetailsChanges findChanges(final String appName, final long since) {
+    // the revision is read first, writes apply their documents and tombstones before advancing it
+    final long revision = revisions.getOrDefault(appName, 0L);
+    // up to date, however long ago the app was written
+    if (since > 0 && since == revision) {
+      return new EnvDetailsChanges(revision, false, List.of(), List.of());
+    }
+    if (isResyncRequired(since, revision, tombstoneRetention)) {
+      return EnvDetailsChanges.resync(revision);
+    }
+    final List<EnvDetails> upserts =
+        getEnvDetails(appName).values().stream()
+            .filter(envDetails -> since == 0 || isAfter(envDetails.getRevision(), since))
+            .map(envDetails -> copy(envDetails, null))
+            .toList();
+    if (since == 0) {
+      return new EnvDetailsChanges(revision, false, upserts, List.of());
+    }
+
+    final Set<String> upsertNames = new HashSet<>();
+    upserts.forEach(envDetails -> upsertNames.add(envDetails.getName()));
+    // a document deleted and created again is an upsert
+    final List<String> deletions =
+        tombstones.getOrDefault(appName, Map.of()).entrySet().stream()
+            .filter(tombstone -> tombstone.getValue() > since)
+            .map(Map.Entry::getKey)
+            .filter(name -> !upsertNames.contains(name))
+            .toList();
+    return new EnvDetailsChanges(revision, false, upserts, deletions);
+  }
+
+  @Override
+  public EnvDetails create(final String appName, final EnvDetails envDetails) {
+    writeLock.lock();
+    try {
+      if (exists(appName, envDetails.getName())) {
+        throw new DuplicateKeyException("Env Details Duplicate: " + envDetails.getName());
+      }
+      if (envDetails.getId() == null) {
+        envDetails.setId(new ObjectId());
+      }
+      envDetails.setRevision(nextRevision(appName));
+      write(List.of(LogRecord.put(appName, copy(envDetails, null))));
+      return envDetails;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public List<EnvDetailsBatchStatus.Status> createAll(
+      final String appName, final List<EnvDetails> envDetailsList) {
+    writeLock.lock();
+    try {
+      final List<EnvDetailsBatchStatus.Status> statuses = new ArrayList<>();
+      final List<LogRecord> logRecords = new ArrayList<>();
+      final Set<String> names = new HashSet<>();
+      final long revision = nextRevision(appName);
+      for (EnvDetails envDetails : envDetailsList) {
+        if (exists(appName, envDetails.getName()) || !names.add(envDetails.getName())) {
+          statuses.add(EnvDetailsBatchStatus.Status.DUPLICATE);
+          continue;
+        }
+        if (envDetails.getId() == null) {
+          envDetails.setId(new ObjectId());
+        }
+        envDetails.setRevision(revision);
+        logRecords.add(LogRecord.put(appName, copy(envDetails, null)));
+        statuses.add(EnvDetailsBatchStatus.Status.SUCCESS);
+      }
+      // the whole batch is one append and one sync
+      write(logRecords);
+      return statuses;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public EnvDetails update(
+      final String appName, final EnvDetails envDetails, final Long expectedVersion) {
+    writeLock.lock();
+    try {
+      final EnvDetails envDetailsCurrent = getEnvDetails(appName).get(envDetails.getName());
+      if (envDetailsCurrent == null
+          || (expectedVersion != null && !isVersion(envDetailsCurrent, expectedVersion))) {
+        return null;
+      }
+      final EnvDetails envDetailsUpdated =
+          EnvDetails.builder()
+              .id(envDetailsCurrent.getId())
+              .name(envDetailsCurrent.getName())
+              .stringValue(envDetails.getStringValue())
+              .listValue(envDetails.getListValue())
+              .mapValue(envDetails.getMapValue())
+              .version(
+                  envDetailsCurrent.getVersion() == null ? 1 : envDetailsCurrent.getVersion() + 1)
+              .revision(nextRevision(appName))
+              .build();
+      write(List.of(LogRecord.put(appName, copy(envDetailsUpdated, null))));
+      return envDetailsUpdated;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void delete(final String appName, final String name) {
+    writeLock.lock();
+    try {
+      if (exists(appName, name)) {
+        write(List.of(new LogRecord(Operation.DELETE, appName, name, null, nextRevision(appName))));
+      }
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public boolean isEmpty(final String appName) {
+    return getEnvDetails(appName).isEmpty();
+  }
+
+  @Override
+  public boolean dropIfEmpty(final String appName) {
+    writeLock.lock();
+    try {
+      if (!apps.containsKey(appName) || !isEmpty(appName)) {
+        return false;
+      }
+      write(List.of(new LogRecord(Operation.DROP, appName, null, null, null)));
+      return true;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private Map<String, EnvDetails> getEnvDetails(final String appName) {
+    return apps.getOrDefault(appName, Map.of());
+  }
+
+  // caller holds the write lock
+  private long nextRevision(final String appName) {
+    return getNextRevision(revisions.getOrDefault(appName, 0L));
+  }
+
+  // documents written before revisions were kept have none, they are older than any revision
+  private static boolean isAfter(final Long revision, final long since) {
+    return revision != null && revision > since;
+  }
+
+  private boolean isVersion(final EnvDetails envDetails, final long expectedVersion) {
+    return expectedVersion == 0
+        ? envDetails.getVersion() == null
+        : envDetails.getVersion() != null && envDetails.getVersion() == expectedVersion;
+  }
+
+  // caller holds the write lock, the records are applied only once they are in the log
+  private void write(final List<LogRecord> logRecords) {
+    if (logRecords.isEmpty()) {
+      return;
+    }
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    logRecords.forEach(logRecord -> writeLine(outputStream, logRecord));
+    final long logLength;
+    try {
+      logLength = logChannel.position();
+    } catch (IOException ex) {
+      throw new DataAccessResourceFailureException("Local Storage Write Exception", ex);
+    }
+    try {
+      final ByteBuffer byteBuffer = ByteBuffer.wrap(outputStream.toByteArray());
+      while (byteBuffer.hasRemaining()) {
+        logChannel.write(byteBuffer);
+      }
+      if (fsync) {
+        logChannel.force(false);
+      }
+    } catch (IOException ex) {
+      // cut off a partly written record so that the next one starts on a new line
+      try {
+        logChannel.truncate(logLength);
+        logChannel.position(logLength);
+      } catch (IOException truncateEx) {
+        ex.addSuppressed(truncateEx);
+      }
+      throw new DataAccessResourceFailureException("Local Storage Write Exception", ex);
+    }
+
+    logRecords.forEach(this::apply);
+    logRecordCount += logRecords.size();
+    if (logRecordCount >= compactThreshold) {
+      try {
+        compact();
+      } catch (IOException ex) {
+        // the records are safe in the log, compaction is tried again after the next write
+        log.error("Local Storage Compact Exception: [{}]", directory, ex);
+      }
+    }
+  }
+
+  private void compact() throws IOException {
+    final Path snapshotPath = directory.resolve(SNAPSHOT_FILE_NAME);
+    final Path snapshotPathTemp = directory.resolve(SNAPSHOT_FILE_NAME + ".tmp");
+    try (FileChannel snapshotChannel =
+        FileChannel.open(
+            snapshotPathTemp,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      final OutputStream outputStream =
+          new BufferedOutputStream(Channels.newOutputStream(snapshotChannel));
+      for (Map.Entry<String, Map<String, EnvDetails>> app : apps.entrySet()) {
+        if (app.getValue().isEmpty()) {
+          writeLine(outputStream, new LogRecord(Operation.APP, app.getKey(), null, null, null));
+        }
+        app.getValue()
+            .values()
+            .forEach(
+                envDetails -> writeLine(outputStream, LogRecord.put(app.getKey(), envDetails)));
+      }
+      // expired tombstones are left out, also of dropped apps
+      final long tombstoneExpiry = System.currentTimeMillis() - tombstoneRetention.toMillis();
+      for (Map.Entry<String, Map<String, Long>> app : tombstones.entrySet()) {
+        app.getValue()
+            .forEach(
+                (name, revision) -> {
+                  if (revision >= tombstoneExpiry) {
+                    writeLine(
+                        outputStream,
+                        new LogRecord(Operation.TOMBSTONE, app.getKey(), name, null, revision));
+                  }
+                });
+      }
+      outputStream.flush();
+      snapshotChannel.force(true);
+    }
+    // the snapshot is replaced in one step, replaying the old log on top of it changes nothing
+    Files.move(
+        snapshotPathTemp,
+        snapshotPath,
+        StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING);
+    logChannel.truncate(0);
+    logChannel.position(0);
+    logChannel.force(true);
+    log.info("Compacted Local Storage: [{}] | LogRecords=[{}]", directory, logRecordCount);
+    logRecordCount = 0;
+  }
+
+  // returns the length of the complete records, bytes after the last line break are ignored
+  private long replay(final Path path, final Consumer<LogRecord> onLogRecord) throws IOException {
+    if (!Files.exists(path)) {
+      return 0;
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      final long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IllegalStateException("Local Storage File Too Large: " + path);
+      }
+      final MappedByteBuffer mappedByteBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      int lineStart = 0;
+      for (int i = 0; i < size; i++) {
+        if (mappedByteBuffer.get(i) != '\n') {
+          continue;
+        }
+        final byte[] line = new byte[i - lineStart];
+        mappedByteBuffer.get(lineStart, line);
+        final LogRecord logRecord;
+        try {
+          logRecord = jsonMapper.readValue(line, LogRecord.class);
+        } catch (Exception ex) {
+          throw new IllegalStateException(
+              "Local Storage Corrupt Record: " + path + " at " + lineStart, ex);
+        }
+        apply(logRecord);
+        onLogRecord.accept(logRecord);
+        lineStart = i + 1;
+      }
+      if (lineStart < size) {
+        log.warn(
+            "Local Storage Incomplete Record Dropped: [{}] | Bytes=[{}]", path, size - lineStart);
+      }
+      return lineStart;
+    }
+  }
+
+  private void apply(final LogRecord logRecord) {
+    switch (logRecord.operation()) {
+      case APP -> apps.putIfAbsent(logRecord.appName(), Map.of());
+      case PUT ->
+          apps.compute(
+              logRecord.appName(),
+              (appName, envDetailsMap) -> {
+                final Map<String, EnvDetails> envDetailsMapUpdated =
+                    envDetailsMap == null
+                        ? new LinkedHashMap<>()
+                        : new LinkedHashMap<>(envDetailsMap);
+                envDetailsMapUpdated.put(logRecord.envDetails().getName(), logRecord.envDetails());
+                return Collections.unmodifiableMap(envDetailsMapUpdated);
+              });
+      case DELETE -> {
+        apps.computeIfPresent(
+            logRecord.appName(),
+            (appName, envDetailsMap) -> {
+              final Map<String, EnvDetails> envDetailsMapUpdated =
+                  new LinkedHashMap<>(envDetailsMap);
+              envDetailsMapUpdated.remove(logRecord.name());
+              return Collections.unmodifiableMap(envDetailsMapUpdated);
+            });
+        applyTombstone(logRecord);
+      }
+      case TOMBSTONE -> applyTombstone(logRecord);
+      // tombstones and the revision stay, so clients of the app are told of its deletions
+      case DROP -> apps.remove(logRecord.appName());
+    }
+    // after the documents, so that a read of the revision finds them
+    final Long revision =
+        logRecord.envDetails() == null
+            ? logRecord.revision()
+            : logRecord.envDetails().getRevision();
+    if (revision != null) {
+      revisions.merge(logRecord.appName(), revision, Math::max);
+    }
+  }
+
+  // deletes logged before revisions were kept have no revision and leave no tombstone
+  private void applyTombstone(final LogRecord logRecord) {
+    if (logRecord.revision() == null) {
+      return;
+    }
+    tombstones.compute(
+        logRecord.appName(),
+        (appName, tombstoneMap) -> {
+          final Map<String, Long> tombstoneMapUpdated =
+              tombstoneMap == null ? new LinkedHashMap<>() : new LinkedHashMap<>(tombstoneMap);
+          tombstoneMapUpdated.put(logRecord.name(), logRecord.revision());
+          return Collections.unmodifiableMap(tombstoneMapUpdated);
+        });
+  }
+
+  private void writeLine(final OutputStream outputStream, final LogRecord logRecord) {
+    try {
+      outputStream.write(jsonMapper.writeValueAsBytes(logRecord));
+      outputStream.write('\n');
+    } catch (IOException ex) {
+      throw new DataAccessResourceFailureException("Local Storage Write Exception", ex);
+    }
+  }
+
+  // stored documents are never handed out, fields works as the projection of name lookups
+  private static EnvDetails copy(final EnvDetails envDetails, final List<String> fields) {
+    final boolean isAllFields = CollectionUtils.isEmpty(fields);
+    return EnvDetails.builder()
+        .id(envDetails.getId())
+        .name(envDetails.getName())
+        .stringValue(
+            isAllFields || fields.contains("stringValue") ? envDetails.getStringValue() : null)
+        .listValue(
+            (isAllFields || fields.contains("listValue")) && envDetails.getListValue() != null
+                ? new ArrayList<>(envDetails.getListValue())
+                : null)
+        .mapValue(
+            (isAllFields || fields.contains("mapValue")) && envDetails.getMapValue() != null
+                ? new LinkedHashMap<>(envDetails.getMapValue())
+                : null)
+        .version(isAllFields ? envDetails.getVersion() : null)
+        .revision(isAllFields ? envDetails.getRevision() : null)
+        .build();
+  }
+
+  enum Operation {
+    // snapshot only, an app without documents
+    APP,
+    PUT,
+    DELETE,
+    // snapshot only, a deleted document that has not expired
+    TOMBSTONE,
+    DROP
+  }
+
+  // revision is that of the tombstone of DELETE and TOMBSTONE, PUT has it in envDetails
+  record LogRecord(
+      Operation operation, String appName, String name, EnvDetails envDetails, Long revision) {
+    static LogRecord put(final String appName, final EnvDetails envDetails) {
+      return new LogRecord(Operation.PUT, appName, null, envDetails, null);
+    }
+  }
+}
@@ -0,0 +1,406 @@
+package env.service.app.store;
+
+import static env.service.app.util.CommonUtils.getAppCollectionName;
+import static env.service.app.util.CommonUtils.getAppName;
+import static env.service.app.util.CommonUtils.isResyncRequired;
+import static env.service.app.util.ConstantUtils.REVISIONS_COLLECTION;
+import static env.service.app.util.ConstantUtils.TOMBSTONES_COLLECTION;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.ReadPreference;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoDatabase;
+import env.service.app.config.EnvServiceProperties;
+import env.service.app.model.EnvDetails;
+import env.service.app.model.EnvDetailsBatchStatus;
+import env.service.app.model.EnvDetailsChanges;
+import env.service.app.service.EnvDetailsIndexService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * Each app is its own collection, app_{appName}, with a unique index on name. App names, name
+ * lookups and streams use envsvc.mongo.read-preference. Reads of whole apps fill the read cache,
+ * also right after writes, so they stay on the primary like reads made to write.
+ *
+ * <p>The revision of a write is the time it started, the revision of each app in
+ * envdetails_revisions is advanced to it once something was written, and the tombstones of deleted
+ * documents are kept in envdetails_tombstones, removed by a TTL index once expired. Writes are not
+ * serialized, by this or other instances, so changes are only returned up to
+ * envsvc.storage.max-write-time ago, by when every write that started before has landed.
+ *
+ * <p>Empty apps are dropped with creates of the app on this instance held off, creates on other
+ * instances are not, so maintenance is meant to run while apps it may drop are not being created.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+    prefix = "envsvc.storage",
+    name = "type",
+    havingValue = "mongo",
+    matchIfMissing = true)
+public class MongoEnvDetailsStore implements EnvDetailsStore {
+
+  private final MongoTemplate mongoTemplate;
+  private final MongoTemplate readMongoTemplate;
+  private final EnvDetailsIndexService envDetailsIndexService;
+  private final Duration tombstoneRetention;
+  private final Duration maxWriteTime;
+  private final Map<String, ReadWriteLock> appLocks = new ConcurrentHashMap<>();
+
+  public MongoEnvDetailsStore(
+      final MongoTemplate mongoTemplate,
+      final EnvDetailsIndexService envDetailsIndexService,
+      final EnvServiceProperties envServiceProperties) {
+    this.mongoTemplate = mongoTemplate;
+    this.envDetailsIndexService = envDetailsIndexService;
+    this.readMongoTemplate = getReadMongoTemplate(mongoTemplate, envServiceProperties.getMongo());
+    this.tombstoneRetention = envServiceProperties.getStorage().getTombstoneRetention();
+    this.maxWriteTime = envServiceProperties.getStorage().getMaxWriteTime();
+  }
+
+  @Override
+  public List<String> getAppNames() {
+    return readMongoTemplate.getCollectionNames().stream()
+        .map(collectionName -> getAppName(collectionName))
+        .filter(Objects::nonNull)
+        .toList();
+  }
+
+  @Override
+  public List<EnvDetails> findAll(final String appName) {
+    // a lagging secondary would put the documents from before a write back in the read cache
+    return mongoTemplate.findAll(EnvDetails.class, getAppCollectionName(appName));
+  }
+
+  @Override
+  public Stream<EnvDetails> stream(final String appName) {
+    return readMongoTemplate.stream(new Query(), EnvDetails.class, getAppCollectionName(appName));
+  }
+
+  @Override
+  public List<EnvDetails> findByNames(
+      final String appName, final Collection<String> names, final List<String> fields) {
+    return readMongoTemplate.find(
+        getNamesQuery(Criteria.where("name").in(names), fields),
+        EnvDetails.class,
+        getAppCollectionName(appName));
+  }
+
+  @Override
+  public EnvDetails findByName(final String appName, final String name, final List<String> fields) {
+    return readMongoTemplate.findOne(
+        getNamesQuery(Criteria.where("name").is(name), fields),
+        EnvDetails.class,
+        getAppCollectionName(appName));
+  }
+
+  @Override
+  public boolean exists(final String appName, final String name) {
+    return mongoTemplate.exists(
+        new Query(Criteria.where("name").is(name)), getAppCollectionName(appName));
+  }
+
+  @Override
+  public EnvDetailsChanges findChanges(final String appName, final long since) {
+    // on the primary, the revision is read first so every write up to it is found
+    final long revision = findRevision(appName);
+    // writes that started up to max write time ago may still land with an earlier revision, so
+    // changes are returned up to then and those after are returned again by the next request
+    final long settledRevision =
+        Math.min(revision, System.currentTimeMillis() - maxWriteTime.toMillis());
+    // clients that are up to date cost one lookup by id, however long ago the app was written
+    if (since > 0 && since == revision && revision == settledRevision) {
+      return new EnvDetailsChanges(revision, false, List.of(), List.of());
+    }
+    if (isResyncRequired(since, revision, tombstoneRetention)) {
+      return EnvDetailsChanges.resync(revision);
+    }
+    final String collectionName = getAppCollectionName(appName);
+    if (since == 0) {
+      return new EnvDetailsChanges(
+          settledRevision,
+          false,
+          mongoTemplate.findAll(EnvDetails.class, collectionName),
+          List.of());
+    }
+
+    final List<EnvDetails> upserts =
+        mongoTemplate.find(
+            new Query(Criteria.where("revision").gt(since)), EnvDetails.class, collectionName);
+    final Set<String> upsertNames =
+        upserts.stream().map(EnvDetails::getName).collect(Collectors.toSet());
+    final Query tombstonesQuery =
+        new Query(Criteria.where("appName").is(appName).and("revision").gt(since));
+    tombstonesQuery.fields().include("name");
+    // a document deleted and created again is an upsert
+    final List<String> deletions =
+        mongoTemplate.find(tombstonesQuery, Document.class, TOMBSTONES_COLLECTION).stream()
+            .map(tombstone -> tombstone.getString("name"))
+            .filter(name -> !upsertNames.contains(name))
+            .toList();
+    return new EnvDetailsChanges(settledRevision, false, upserts, deletions);
+  }
+
+  @Override
+  public EnvDetails create(final String appName, final EnvDetails envDetails) {
+    return withCreateLock(appName, () -> insert(appName, envDetails));
+  }
+
+  @Override
+  public List<EnvDetailsBatchStatus.Status> createAll(
+      final String appName, final List<EnvDetails> envDetailsList) {
+    return withCreateLock(appName, () -> insertAll(appName, envDetailsList));
+  }
+
+  private EnvDetails insert(final String appName, final EnvDetails envDetails) {
+    // do not allow to save multiple documents with same name
+    // this is enforced by the unique index on name, save throws DuplicateKeyException
+    // if the index could not be created, probe for an existing document with the same name
+    if (!envDetailsIndexService.ensureNameIndex(appName) && exists(appName, envDetails.getName())) {
+      throw new DuplicateKeyException("Env Details Duplicate: " + envDetails.getName());
+    }
+    final long revision = System.currentTimeMillis();
+    envDetails.setRevision(revision);
+    final EnvDetails savedEnvDetails =
+        mongoTemplate.save(envDetails, getAppCollectionName(appName));
+    advanceRevision(appName, revision);
+    return savedEnvDetails;
+  }
+
+  private List<EnvDetailsBatchStatus.Status> insertAll(
+      final String appName, final List<EnvDetails> envDetailsList) {
+    final EnvDetailsBatchStatus.Status[] statuses =
+        new EnvDetailsBatchStatus.Status[envDetailsList.size()];
+    final List<Integer> insertIndexes = new ArrayList<>();
+    for (int i = 0; i < envDetailsList.size(); i++) {
+      insertIndexes.add(i);
+    }
+
+    if (!envDetailsIndexService.ensureNameIndex(appName)) {
+      // index could not be created, so look up existing documents with the same names
+      final Set<String> existingNames =
+          findExistingNames(
+              appName,
+              envDetailsList.stream().map(EnvDetails::getName).collect(Collectors.toSet()));
+      insertIndexes.removeIf(
+          i -> {
+            if (existingNames.contains(envDetailsList.get(i).getName())) {
+              statuses[i] = EnvDetailsBatchStatus.Status.DUPLICATE;
+              return true;
+            }
+            return false;
+          });
+    }
+
+    if (!insertIndexes.isEmpty()) {
+      final long revision = System.currentTimeMillis();
+      insertIndexes.forEach(i -> envDetailsList.get(i).setRevision(revision));
+      insertBatch(appName, envDetailsList, insertIndexes, statuses);
+      if (insertIndexes.stream()
+          .anyMatch(i -> statuses[i] == EnvDetailsBatchStatus.Status.SUCCESS)) {
+        advanceRevision(appName, revision);
+      }
+    }
+    return List.of(statuses);
+  }
+
+  @Override
+  public EnvDetails update(
+      final String appName, final EnvDetails envDetails, final Long expectedVersion) {
+    Criteria criteria = Criteria.where("name").is(envDetails.getName());
+    if (expectedVersion != null) {
+      criteria =
+          expectedVersion == 0
+              ? criteria.and("version").exists(false)
+              : criteria.and("version").is(expectedVersion);
+    }
+
+    // single atomic findAndModify, readers see either the old or the new values
+    final long revision = System.currentTimeMillis();
+    final Update update = new Update().inc("version", 1).set("revision", revision);
+    setOrUnset(update, "stringValue", envDetails.getStringValue());
+    setOrUnset(update, "listValue", envDetails.getListValue());
+    setOrUnset(update, "mapValue", envDetails.getMapValue());
+    final EnvDetails updatedEnvDetails =
+        mongoTemplate.findAndModify(
+            new Query(criteria),
+            update,
+            FindAndModifyOptions.options().returnNew(true),
+            EnvDetails.class,
+            getAppCollectionName(appName));
+    // no document or a version mismatch, nothing was written
+    if (updatedEnvDetails != null) {
+      advanceRevision(appName, revision);
+    }
+    return updatedEnvDetails;
+  }
+
+  @Override
+  public void delete(final String appName, final String name) {
+    final long revision = System.currentTimeMillis();
+    if (mongoTemplate
+            .remove(new Query(Criteria.where("name").is(name)), getAppCollectionName(appName))
+            .getDeletedCount()
+        > 0) {
+      mongoTemplate.upsert(
+          new Query(Criteria.where("appName").is(appName).and("name").is(name)),
+          new Update()
+              .set("revision", revision)
+              .set("expireAt", new Date(revision + tombstoneRetention.toMillis())),
+          TOMBSTONES_COLLECTION);
+      advanceRevision(appName, revision);
+    }
+  }
+
+  @Override
+  public boolean isEmpty(final String appName) {
+    return !mongoTemplate.exists(new Query(), getAppCollectionName(appName));
+  }
+
+  @Override
+  public boolean dropIfEmpty(final String appName) {
+    final Lock appDropLock = getAppLock(appName).writeLock();
+    appDropLock.lock();
+    try {
+      if (!isEmpty(appName)) {
+        return false;
+      }
+      final String collectionName = getAppCollectionName(appName);
+      mongoTemplate.dropCollection(collectionName);
+      envDetailsIndexService.forgetNameIndex(collectionName);
+      return true;
+    } finally {
+      appDropLock.unlock();
+    }
+  }
+
+  // creates of an app run together, but not while it is dropped, as the drop would lose them
+  // updates and deletes have nothing to change in an app that is empty
+  private <T> T withCreateLock(final String appName, final Supplier<T> creator) {
+    final Lock appCreateLock = getAppLock(appName).readLock();
+    appCreateLock.lock();
+    try {
+      return creator.get();
+    } finally {
+      appCreateLock.unlock();
+    }
+  }
+
+  private ReadWriteLock getAppLock(final String appName) {
+    return appLocks.computeIfAbsent(appName, key -> new ReentrantReadWriteLock());
+  }
+
+  // the same template when reads go to the primary, so only other read preferences add a template
+  private static MongoTemplate getReadMongoTemplate(
+      final MongoTemplate mongoTemplate, final EnvServiceProperties.Mongo mongo) {
+    final ReadPreference readPreference =
+        "primary".equalsIgnoreCase(mongo.getReadPreference())
+            ? ReadPreference.primary()
+            : ReadPreference.valueOf(
+                mongo.getReadPreference(),
+                List.of(),
+                mongo.getMaxStaleness().toSeconds(),
+                TimeUnit.SECONDS);
+    log.info("MongoDB Read Preference: [{}]", readPreference);
+    if (readPreference.equals(ReadPreference.primary())) {
+      return mongoTemplate;
+    }
+    return new MongoTemplate(
+        mongoTemplate.getMongoDatabaseFactory(), mongoTemplate.getConverter()) {
+      @Override
+      protected MongoDatabase prepareDatabase(final MongoDatabase database) {
+        // also applies to listing collections, which a template read preference does not
+        return database.withReadPreference(readPreference);
+      }
+    };
+  }
+
+  private long findRevision(final String appName) {
+    final Document revision = mongoTemplate.findById(appName, Document.class, REVISIONS_COLLECTION);
+    return revision == null ? 0 : revision.get("revision", Number.class).longValue();
+  }
+
+  // atomic, so the revision of appName never goes back when writes of it land out of order
+  private void advanceRevision(final String appName, final long revision) {
+    mongoTemplate.upsert(
+        new Query(Criteria.where("_id").is(appName)),
+        new Update().max("revision", revision),
+        REVISIONS_COLLECTION);
+  }
+
+  // name lookups are served by the unique index on name, fields limits what is returned
+  private Query getNamesQuery(final Criteria criteria, final List<String> fields) {
+    final Query query = new Query(criteria);
+    if (!CollectionUtils.isEmpty(fields)) {
+      query.fields().include("name").include(fields.toArray(String[]::new));
+    }
+    return query;
+  }
+
+  private void setOrUnset(final Update update, final String key, final Object value) {
+    if (value == null) {
+      update.unset(key);
+    } else {
+      update.set(key, value);
+    }
+  }
+
+  private Set<String> findExistingNames(final String appName, final Set<String> names) {
+    final Query query = new Query(Criteria.where("name").in(names));
+    query.fields().include("name");
+    return mongoTemplate.find(query, EnvDetails.class, getAppCollectionName(appName)).stream()
+        .map(EnvDetails::getName)
+        .collect(Collectors.toSet());
+  }
+
+  private void insertBatch(
+      final String appName,
+      final List<EnvDetails> envDetailsList,
+      final List<Integer> insertIndexes,
+      final EnvDetailsBatchStatus.Status[] statuses) {
+    final BulkOperations bulkOperations =
+        mongoTemplate.bulkOps(
+            BulkOperations.BulkMode.UNORDERED, EnvDetails.class, getAppCollectionName(appName));
+    bulkOperations.insert(insertIndexes.stream().map(envDetailsList::get).toList());
+    insertIndexes.forEach(i -> statuses[i] = EnvDetailsBatchStatus.Status.SUCCESS);
+    try {
+      bulkOperations.execute();
+    } catch (BulkOperationException ex) {
+      // unordered bulk write keeps going after an error, errors are reported by bulk index
+      for (BulkWriteError bulkWriteError : ex.getErrors()) {
+        statuses[insertIndexes.get(bulkWriteError.getIndex())] =
+            ErrorCategory.fromErrorCode(bulkWriteError.getCode()) == ErrorCategory.DUPLICATE_KEY
+                ? EnvDetailsBatchStatus.Status.DUPLICATE
+                : EnvDetailsBatchStatus.Status.ERROR;
+      }
+    }
+  }
+}
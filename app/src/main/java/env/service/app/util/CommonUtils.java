@@ -1,7 +1,26 @@
 package env.service.app.util;
 
+import static env.service.app.util.ConstantUtils.APP_COLLECTION_PREFIX;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import env.service.app.model.EnvDetails;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+import tools.jackson.core.JsonParser;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.deser.std.StdDeserializer;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.module.SimpleModule;
+import tools.jackson.databind.ser.std.ToStringSerializer;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class CommonUtils {
@@ -13,6 +32,125 @@ public class CommonUtils {
   }
 
   public static String getAppCollectionName(final String appName) {
-    return "app_" + appName;
+    return APP_COLLECTION_PREFIX + appName;
+  }
+
+  public static String getAppName(final String collectionName) {
+    return collectionName.startsWith(APP_COLLECTION_PREFIX)
+        ? collectionName.substring(APP_COLLECTION_PREFIX.length())
+        : null;
+  }
+
+  /**
+   * Content version of an app's env details, used as the ETag of read responses. The digest is
+   * computed from the field values so it stays the same across restarts and cache reloads as long
+   * as the documents do not change. version and revision are included as they are returned too, an
+   * update with the same values still changes them.
+   */
+  public static String getEnvDetailsVersion(final List<EnvDetails> envDetailsList) {
+    final MessageDigest messageDigest = getMessageDigest();
+    for (EnvDetails envDetails : envDetailsList) {
+      updateDigest(
+          messageDigest, envDetails.getId() == null ? null : envDetails.getId().toHexString());
+      updateDigest(messageDigest, envDetails.getName());
+      updateDigest(
+          messageDigest,
+          envDetails.getVersion() == null ? null : String.valueOf(envDetails.getVersion()));
+      updateDigest(
+          messageDigest,
+          envDetails.getRevision() == null ? null : String.valueOf(envDetails.getRevision()));
+      updateDigest(messageDigest, envDetails.getStringValue());
+      if (envDetails.getListValue() == null) {
+        updateDigest(messageDigest, null);
+      } else {
+        updateDigest(messageDigest, String.valueOf(envDetails.getListValue().size()));
+        envDetails.getListValue().forEach(value -> updateDigest(messageDigest, value));
+      }
+      if (envDetails.getMapValue() == null) {
+        updateDigest(messageDigest, null);
+      } else {
+        updateDigest(messageDigest, String.valueOf(envDetails.getMapValue().size()));
+        for (Map.Entry<String, String> entry : new TreeMap<>(envDetails.getMapValue()).entrySet()) {
+          updateDigest(messageDigest, entry.getKey());
+          updateDigest(messageDigest, entry.getValue());
+        }
+      }
+    }
+    return HexFormat.of().formatHex(messageDigest.digest(), 0, 16);
+  }
+
+  /**
+   * Revision of the next write to an app whose last write was revision. Revisions are the time of
+   * the write in epoch milliseconds, or one more than the last when writes come faster or the clock
+   * goes back, so they always increase and also tell how old a change is.
+   */
+  public static long getNextRevision(final long revision) {
+    return Math.max(revision + 1, System.currentTimeMillis());
+  }
+
+  /**
+   * Returns true if the changes of an app after revision since cannot be told: since is before the
+   * current revision of the app and older than retention, so tombstones after it may have expired,
+   * or since is after the current revision. since 0 asks for all documents and since equal to the
+   * current revision for none, neither needs a resync.
+   */
+  public static boolean isResyncRequired(
+      final long since, final long revision, final Duration retention) {
+    if (since == 0 || since == revision) {
+      return false;
+    }
+    return since > revision || since < System.currentTimeMillis() - retention.toMillis();
+  }
+
+  public static String getSha256Hex(final String value) {
+    return HexFormat.of()
+        .formatHex(getMessageDigest().digest(value.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Mapper for env details written to files. ObjectId is written as its hex string, the same as in
+   * the documents' _id, so ids and the versions computed from them survive a round trip.
+   */
+  public static JsonMapper getStorageJsonMapper() {
+    return JsonMapper.builder()
+        .addModule(
+            new SimpleModule()
+                .addSerializer(ObjectId.class, ToStringSerializer.instance)
+                .addDeserializer(ObjectId.class, new ObjectIdDeserializer()))
+        .changeDefaultPropertyInclusion(
+            inclusion -> inclusion.withValueInclusion(JsonInclude.Include.NON_NULL))
+        .build();
+  }
+
+  private static MessageDigest getMessageDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException("SHA-256 Message Digest Not Available", ex);
+    }
+  }
+
+  private static void updateDigest(final MessageDigest messageDigest, final String value) {
+    if (value == null) {
+      messageDigest.update((byte) 0);
+      return;
+    }
+    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    messageDigest.update((byte) 1);
+    messageDigest.update(String.valueOf(bytes.length).getBytes(StandardCharsets.UTF_8));
+    messageDigest.update((byte) ':');
+    messageDigest.update(bytes);
+  }
+
+  private static class ObjectIdDeserializer extends StdDeserializer<ObjectId> {
+    ObjectIdDeserializer() {
+      super(ObjectId.class);
+    }
+
+    @Override
+    public ObjectId deserialize(
+        final JsonParser jsonParser, final DeserializationContext deserializationContext) {
+      return new ObjectId(jsonParser.getValueAsString());
+    }
   }
 }
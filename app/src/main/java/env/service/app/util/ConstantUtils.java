@@ -14,6 +14,12 @@ public class ConstantUtils {
   public static final String MONGO_DB = "MONGO_DB";
   public static final String MONGO_USR = "MONGO_USR";
   public static final String MONGO_PWD = "MONGO_PWD";
+  public static final String STORAGE_TYPE = "STORAGE_TYPE";
 
   // others
+  public static final String APP_COLLECTION_PREFIX = "app_";
+  public static final String REVISIONS_COLLECTION = "envdetails_revisions";
+  public static final String TOMBSTONES_COLLECTION = "envdetails_tombstones";
+  public static final String CACHE_ENV_DETAILS = "envDetails";
+  public static final String HEADER_ENV_DETAILS_STALE = "X-Env-Details-Stale";
 }
@@ -1,18 +1,50 @@
 package env.service.app.util;
 
+import env.service.app.config.EnvServiceProperties;
+import env.service.app.service.AppRegistryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
 
 @Slf4j
+@RequiredArgsConstructor
 public class InterceptorUtilsLogging implements HandlerInterceptor {
 
+  private static final String START_TIME = "startTime";
+  private static final String SAMPLED = "sampled";
+  private static final String APP_NAME = "appName";
+  private static final String APP_NAME_NONE = "none";
+  private static final String APP_NAME_OTHER = "other";
+  private static final String ENDPOINT_UNKNOWN = "UNKNOWN";
+
+  private final MeterRegistry meterRegistry;
+  private final AppRegistryService appRegistryService;
+  private final EnvServiceProperties envServiceProperties;
+  // app names already used as tag values, capped so unknown or too many apps can't blow up metrics
+  private final Set<String> appNameTags = ConcurrentHashMap.newKeySet();
+
   @Override
   public boolean preHandle(
       final HttpServletRequest request, final HttpServletResponse response, final Object handler) {
-    request.setAttribute("startTime", System.currentTimeMillis());
-    log.info("Receiving [{}] URL [{}]", request.getMethod(), request.getRequestURI());
+    // async requests are dispatched again when they complete, keep the time of the first dispatch
+    if (request.getAttribute(START_TIME) == null) {
+      request.setAttribute(START_TIME, System.nanoTime());
+      final boolean sampled = isSampled();
+      request.setAttribute(SAMPLED, sampled);
+      if (sampled) {
+        log.info("Receiving [{}] URL [{}]", request.getMethod(), request.getRequestURI());
+      }
+    }
     return true;
   }
 
@@ -22,12 +54,59 @@ public class InterceptorUtilsLogging implements HandlerInterceptor {
       final HttpServletResponse response,
       final Object handler,
       final Exception ex) {
-    final long duration = System.currentTimeMillis() - (Long) request.getAttribute("startTime");
+    final long durationNanos = System.nanoTime() - (Long) request.getAttribute(START_TIME);
+    Timer.builder("envsvc.requests")
+        .description("Time taken to handle requests by endpoint and app")
+        .tag("method", request.getMethod())
+        .tag("endpoint", getEndpoint(request))
+        .tag("status", String.valueOf(response.getStatus()))
+        .tag(APP_NAME, getAppNameTag(request))
+        .publishPercentiles(0.5, 0.95, 0.99)
+        .publishPercentileHistogram()
+        .register(meterRegistry)
+        .record(durationNanos, TimeUnit.NANOSECONDS);
+
+    // errors and slow requests are logged even when the request was not sampled
+    final boolean isError = ex != null || response.getStatus() >= 400;
+    final boolean isSlow =
+        durationNanos >= envServiceProperties.getLogging().getSlowThreshold().toNanos();
+    if (!isError && !isSlow && !Boolean.TRUE.equals(request.getAttribute(SAMPLED))) {
+      return;
+    }
     log.info(
         "Returning [{}] Status Code [{}] URL [{}] AFTER [{}ms]",
         request.getMethod(),
         response.getStatus(),
         request.getRequestURI(),
-        duration);
+        TimeUnit.NANOSECONDS.toMillis(durationNanos));
+  }
+
+  private boolean isSampled() {
+    final double sampleRate = envServiceProperties.getLogging().getSampleRate();
+    return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+  }
+
+  private String getEndpoint(final HttpServletRequest request) {
+    final Object endpoint = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    return endpoint == null ? ENDPOINT_UNKNOWN : endpoint.toString();
+  }
+
+  @SuppressWarnings("unchecked")
+  private String getAppNameTag(final HttpServletRequest request) {
+    final Map<String, String> uriVariables =
+        (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+    final String appName = uriVariables == null ? null : uriVariables.get(APP_NAME);
+    if (appName == null) {
+      return APP_NAME_NONE;
+    }
+    if (appNameTags.contains(appName)) {
+      return appName;
+    }
+    if (appRegistryService.contains(appName)
+        && appNameTags.size() < envServiceProperties.getMetrics().getMaxAppTags()
+        && appNameTags.add(appName)) {
+      return appName;
+    }
+    return APP_NAME_OTHER;
   }
 }
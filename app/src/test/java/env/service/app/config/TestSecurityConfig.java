@@ -1,16 +1,14 @@
 package env.service.app.config;
 
-import static org.springframework.security.config.Customizer.withDefaults;
-
+import env.service.app.service.ApiKeyService;
 import env.service.app.util.ConstantUtils;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Profile;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
-import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 
@@ -19,14 +17,16 @@ import org.springframework.security.web.SecurityFilterChain;
 public class TestSecurityConfig {
 
   @Bean
-  public SecurityFilterChain securityFilterChain(final HttpSecurity http) throws Exception {
-    return http.csrf(AbstractHttpConfigurer::disable)
-        .authorizeHttpRequests(
-            auth -> auth.requestMatchers("/tests/ping").permitAll().anyRequest().authenticated())
-        .sessionManagement(
-            session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-        .httpBasic(withDefaults())
-        .build();
+  public SecurityFilterChain securityFilterChain(
+      final HttpSecurity http,
+      final ApiKeyService apiKeyService,
+      final UserDetailsService userDetailsService,
+      final EnvServiceProperties envServiceProperties)
+      throws Exception {
+    return SecurityConfig.buildSecurityFilterChain(
+        http,
+        apiKeyService,
+        SecurityConfig.buildAuthenticationManager(userDetailsService, envServiceProperties));
   }
 
   @Bean
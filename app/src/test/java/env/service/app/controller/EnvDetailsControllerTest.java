@@ -2,62 +2,135 @@ package env.service.app.controller;
 
 import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoClientSettings;
 import com.mongodb.MongoInternalException;
-import com.mongodb.client.MongoCollection;
+import com.mongodb.bulk.BulkWriteError;
 import com.mongodb.client.result.DeleteResult;
+import env.service.app.config.EnvServiceProperties;
 import env.service.app.config.TestSecurityConfig;
 import env.service.app.model.EnvDetails;
+import env.service.app.model.EnvDetailsAppsResponse;
+import env.service.app.model.EnvDetailsBatchResponse;
+import env.service.app.model.EnvDetailsBatchStatus;
+import env.service.app.model.EnvDetailsChangesResponse;
 import env.service.app.model.EnvDetailsResponse;
+import env.service.app.service.ApiKeyService;
+import env.service.app.service.AppRegistryService;
+import env.service.app.service.EnvDetailsCacheService;
+import env.service.app.service.EnvDetailsSnapshotService;
+import env.service.app.service.EnvDetailsWatchService;
+import env.service.app.store.EnvDetailsStore;
 import env.service.app.util.ConstantUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import org.bson.BsonDocument;
+import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.mongodb.autoconfigure.MongoAutoConfiguration;
+import org.springframework.boot.mongodb.autoconfigure.MongoClientSettingsBuilderCustomizer;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
-
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+      "envsvc.api-keys.clients.test-client.secret-hash="
+          + "{bcrypt}$2a$10$qT.Y3bTFzzpdVPdrvoAQwuJbILa3giFqpQWWh05Z5iJZZ21ag8Fvy",
+      "envsvc.api-keys.clients.scoped-client.secret-hash="
+          + "{bcrypt}$2a$10$qT.Y3bTFzzpdVPdrvoAQwuJbILa3giFqpQWWh05Z5iJZZ21ag8Fvy",
+      "envsvc.api-keys.clients.scoped-client.app-names=test_collection",
+      "envsvc.snapshot.file="
+    })
 @ActiveProfiles("springboottest")
 @Import({TestSecurityConfig.class})
 @EnableAutoConfiguration(exclude = MongoAutoConfiguration.class)
 @AutoConfigureMockMvc
 public class EnvDetailsControllerTest {
   @Autowired private MockMvc mockMvc;
+  @Autowired private CacheManager cacheManager;
+  @Autowired private AppRegistryService appRegistryService;
+  @Autowired private MeterRegistry meterRegistry;
+  @Autowired private ApiKeyService apiKeyService;
+  @Autowired private EnvDetailsSnapshotService envDetailsSnapshotService;
+  @Autowired private EnvDetailsCacheService envDetailsCacheService;
+  @Autowired private EnvDetailsWatchService envDetailsWatchService;
+  @Autowired private EnvDetailsStore envDetailsStore;
+  @Autowired private EnvServiceProperties envServiceProperties;
+  @Autowired private MongoClientSettingsBuilderCustomizer mongoSettingsCustomizer;
 
   @MockitoBean private MongoTemplate mongoTemplate;
 
@@ -91,9 +164,16 @@ public class EnvDetailsControllerTest {
     return objectMapper;
   }
 
+  @BeforeEach
+  void resetAppRegistry() {
+    appRegistryService.invalidate();
+  }
+
   @AfterEach
   void resetMocks() {
     Mockito.reset(mongoTemplate);
+    envDetailsSnapshotService.invalidate();
+    cacheManager.getCacheNames().forEach(cacheName -> cacheManager.getCache(cacheName).clear());
   }
 
   @Test
@@ -124,6 +204,34 @@ public class EnvDetailsControllerTest {
     assertTrue(envDetailsResponse.getEnvDetails().getFirst().getListValue().contains("three"));
   }
 
+  @Test
+  void test_GetAllAppNames_Success_Prefix() throws Exception {
+    when(mongoTemplate.getCollectionNames())
+        .thenReturn(Set.of("app_one", "app_one_two", "app_three", "system_one"));
+
+    for (int i = 0; i < 2; i++) {
+      MvcResult mvcResult =
+          mockMvc
+              .perform(
+                  get("/api/v1/appNames")
+                      .param("prefix", "one")
+                      .with(
+                          SecurityMockMvcRequestPostProcessors.httpBasic(
+                              ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+              .andExpect(status().isOk())
+              .andReturn();
+
+      EnvDetailsResponse envDetailsResponse =
+          objectMapper()
+              .readValue(mvcResult.getResponse().getContentAsString(), EnvDetailsResponse.class);
+
+      assertEquals(
+          List.of("one", "one_two"), envDetailsResponse.getEnvDetails().getFirst().getListValue());
+    }
+
+    verify(mongoTemplate, times(1)).getCollectionNames();
+  }
+
   @Test
   void test_GetAllAppNames_Failure_Unauthorized() throws Exception {
     mockMvc
@@ -165,12 +273,9 @@ public class EnvDetailsControllerTest {
   @Test
   void test_DeleteEmptyAppNames_Success() throws Exception {
     when(mongoTemplate.getCollectionNames()).thenReturn(Set.of("app_one", "app_two", "app_three"));
-    when(mongoTemplate.getCollection("app_one")).thenReturn(mock(MongoCollection.class));
-    when(mongoTemplate.getCollection("app_two")).thenReturn(mock(MongoCollection.class));
-    when(mongoTemplate.getCollection("app_three")).thenReturn(mock(MongoCollection.class));
-    when(mongoTemplate.getCollection("app_one").countDocuments()).thenReturn(0L);
-    when(mongoTemplate.getCollection("app_two").countDocuments()).thenReturn(1L);
-    when(mongoTemplate.getCollection("app_three").countDocuments()).thenReturn(2L);
+    when(mongoTemplate.exists(any(Query.class), eq("app_one"))).thenReturn(false);
+    when(mongoTemplate.exists(any(Query.class), eq("app_two"))).thenReturn(true);
+    when(mongoTemplate.exists(any(Query.class), eq("app_three"))).thenReturn(true);
 
     mockMvc
         .perform(
@@ -186,6 +291,67 @@ public class EnvDetailsControllerTest {
     verify(mongoTemplate, never()).dropCollection("app_three");
   }
 
+  @Test
+  void test_DeleteEmptyAppNames_Success_CreateWhileDropping() throws Exception {
+    AtomicReference<CompletableFuture<EnvDetails>> created = new AtomicReference<>();
+    when(mongoTemplate.getCollectionNames()).thenReturn(Set.of("app_one"));
+    when(mongoTemplate.indexOps(anyString())).thenReturn(mock(IndexOperations.class));
+    when(mongoTemplate.exists(any(Query.class), eq("app_one")))
+        .thenReturn(false)
+        .thenAnswer(
+            invocation -> {
+              // a create of the app arrives after it was found empty, while it is dropped
+              created.set(
+                  CompletableFuture.supplyAsync(
+                      () -> envDetailsStore.create("one", EnvDetails.builder().name("a").build())));
+              Thread.sleep(200);
+              return false;
+            });
+
+    mockMvc
+        .perform(
+            delete("/api/v1/appNames")
+                .with(
+                    SecurityMockMvcRequestPostProcessors.httpBasic(
+                        ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    // the create waits for the drop, and creates the app again
+    created.get().get(5, TimeUnit.SECONDS);
+    InOrder inOrder = inOrder(mongoTemplate);
+    inOrder.verify(mongoTemplate).dropCollection("app_one");
+    inOrder.verify(mongoTemplate).save(any(EnvDetails.class), eq("app_one"));
+  }
+
+  @Test
+  void test_DeleteEmptyAppNames_Success_DryRun() throws Exception {
+    when(mongoTemplate.getCollectionNames())
+        .thenReturn(Set.of("app_one", "app_two", "env_revisions"));
+    when(mongoTemplate.exists(any(Query.class), eq("app_one"))).thenReturn(false);
+    when(mongoTemplate.exists(any(Query.class), eq("app_two"))).thenReturn(true);
+
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                delete("/api/v1/appNames")
+                    .param("dryRun", "true")
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    EnvDetailsResponse envDetailsResponse =
+        objectMapper()
+            .readValue(mvcResult.getResponse().getContentAsString(), EnvDetailsResponse.class);
+
+    assertNotNull(envDetailsResponse);
+    assertEquals(List.of("one"), envDetailsResponse.getEnvDetails().getFirst().getListValue());
+    verify(mongoTemplate, never()).exists(any(Query.class), eq("env_revisions"));
+    verify(mongoTemplate, never()).dropCollection(anyString());
+  }
+
   @Test
   void test_DeleteEmptyAppNames_Failure_Unauthorized() throws Exception {
     mockMvc
@@ -227,6 +393,7 @@ public class EnvDetailsControllerTest {
 
   @Test
   void test_Create_Success() throws Exception {
+    when(mongoTemplate.indexOps(anyString())).thenReturn(mock(IndexOperations.class));
     when(mongoTemplate.save(any(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME)))
         .thenReturn(ENV_DETAILS_IN_RESPONSE);
 
@@ -254,6 +421,36 @@ public class EnvDetailsControllerTest {
     assertEquals(envDetailsResponse.getEnvDetails().size(), 1);
     assertEquals(
         ENV_DETAILS_REQUEST.getName(), envDetailsResponse.getEnvDetails().getFirst().getName());
+    verify(mongoTemplate, never()).findAll(any(), anyString());
+  }
+
+  @Test
+  void test_Create_Failure_Duplicate() throws Exception {
+    when(mongoTemplate.indexOps(anyString())).thenReturn(mock(IndexOperations.class));
+    when(mongoTemplate.save(any(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME)))
+        .thenThrow(new DuplicateKeyException("E11000 duplicate key error"));
+
+    String requestBody = objectMapper().writeValueAsString(ENV_DETAILS_REQUEST);
+
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                post(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(requestBody)
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+
+    EnvDetailsResponse envDetailsResponse =
+        objectMapper()
+            .readValue(mvcResult.getResponse().getContentAsString(), EnvDetailsResponse.class);
+
+    assertNotNull(envDetailsResponse);
+    assertNull(envDetailsResponse.getEnvDetails());
+    assertEquals("Env Details Validation Error", envDetailsResponse.getErrMsg());
   }
 
   @Test
@@ -337,6 +534,101 @@ public class EnvDetailsControllerTest {
     ENV_DETAILS_REQUEST.setMapValue(ENV_DETAILS_IN_RESPONSE.getMapValue());
   }
 
+  @Test
+  void test_CreateBatch_Success() throws Exception {
+    BulkOperations bulkOperations = mock(BulkOperations.class);
+    BulkOperationException bulkOperationException = mock(BulkOperationException.class);
+    when(bulkOperationException.getErrors())
+        .thenReturn(List.of(new BulkWriteError(11000, "E11000", new BsonDocument(), 1)));
+    when(bulkOperations.execute()).thenThrow(bulkOperationException);
+    when(mongoTemplate.indexOps(anyString())).thenReturn(mock(IndexOperations.class));
+    when(mongoTemplate.bulkOps(
+            eq(BulkOperations.BulkMode.UNORDERED),
+            eq(EnvDetails.class),
+            eq("app_" + TEST_COLLECTION_NAME)))
+        .thenReturn(bulkOperations);
+
+    List<EnvDetails> envDetailsList =
+        List.of(
+            EnvDetails.builder().name("name_1").stringValue("value_1").build(),
+            EnvDetails.builder().name("name_2").stringValue("value_2").build(),
+            EnvDetails.builder().name("name_1").stringValue("value_3").build(),
+            EnvDetails.builder().name("name_4").build());
+    String requestBody = objectMapper().writeValueAsString(envDetailsList);
+
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                post(String.format("/api/v1/%s/batch", TEST_COLLECTION_NAME))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(requestBody)
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    EnvDetailsBatchResponse envDetailsBatchResponse =
+        objectMapper()
+            .readValue(mvcResult.getResponse().getContentAsString(), EnvDetailsBatchResponse.class);
+
+    assertNotNull(envDetailsBatchResponse);
+    assertNull(envDetailsBatchResponse.getErrMsg());
+    assertEquals(
+        List.of(
+            EnvDetailsBatchStatus.Status.SUCCESS,
+            EnvDetailsBatchStatus.Status.DUPLICATE,
+            EnvDetailsBatchStatus.Status.DUPLICATE,
+            EnvDetailsBatchStatus.Status.INVALID),
+        envDetailsBatchResponse.getEnvDetailsStatuses().stream()
+            .map(EnvDetailsBatchStatus::getStatus)
+            .toList());
+    ArgumentCaptor<List<EnvDetails>> insertCaptor = ArgumentCaptor.captor();
+    verify(bulkOperations).insert(insertCaptor.capture());
+    // the whole batch is one revision of the app
+    Long revision = insertCaptor.getValue().getFirst().getRevision();
+    assertNotNull(revision);
+    assertEquals(
+        List.of(
+            EnvDetails.builder()
+                .name("name_1")
+                .stringValue("value_1")
+                .version(1L)
+                .revision(revision)
+                .build(),
+            EnvDetails.builder()
+                .name("name_2")
+                .stringValue("value_2")
+                .version(1L)
+                .revision(revision)
+                .build()),
+        insertCaptor.getValue());
+    verify(mongoTemplate, never()).findAll(any(), anyString());
+  }
+
+  @Test
+  void test_CreateBatch_Failure_ValidationError() throws Exception {
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                post(String.format("/api/v1/%s/batch", TEST_COLLECTION_NAME))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("[]")
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+
+    EnvDetailsBatchResponse envDetailsBatchResponse =
+        objectMapper()
+            .readValue(mvcResult.getResponse().getContentAsString(), EnvDetailsBatchResponse.class);
+
+    assertNotNull(envDetailsBatchResponse);
+    assertNull(envDetailsBatchResponse.getEnvDetailsStatuses());
+    assertEquals("Env Details Validation Error", envDetailsBatchResponse.getErrMsg());
+  }
+
   @Test
   void test_Read_Success() throws Exception {
     when(mongoTemplate.findAll(eq(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME)))
@@ -365,145 +657,1271 @@ public class EnvDetailsControllerTest {
   }
 
   @Test
-  void test_Read_Failure_Unauthorized() throws Exception {
+  void test_Read_Success_WrittenWhileLoading() throws Exception {
+    EnvDetails envDetailsUpdated =
+        EnvDetails.builder()
+            .id(ENV_DETAILS_IN_RESPONSE.getId())
+            .name(ENV_DETAILS_REQUEST.getName())
+            .stringValue("test_string_value_updated")
+            .build();
+    when(mongoTemplate.findAll(eq(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME)))
+        .thenAnswer(
+            invocation -> {
+              // a write completes while the env details from before it are being loaded
+              envDetailsCacheService.evict(TEST_COLLECTION_NAME);
+              return List.of(ENV_DETAILS_IN_RESPONSE);
+            })
+        .thenReturn(List.of(envDetailsUpdated));
+
+    assertEquals(
+        ENV_DETAILS_IN_RESPONSE.getStringValue(),
+        envDetailsCacheService
+            .findAll(TEST_COLLECTION_NAME)
+            .envDetails()
+            .getFirst()
+            .getStringValue());
+    assertEquals(
+        envDetailsUpdated.getStringValue(),
+        envDetailsCacheService
+            .findAll(TEST_COLLECTION_NAME)
+            .envDetails()
+            .getFirst()
+            .getStringValue());
+    assertEquals(
+        envDetailsUpdated.getStringValue(),
+        envDetailsCacheService
+            .findAll(TEST_COLLECTION_NAME)
+            .envDetails()
+            .getFirst()
+            .getStringValue());
+    verify(mongoTemplate, times(2))
+        .findAll(eq(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME));
+  }
+
+  @Test
+  void test_Read_Success_Gzip() throws Exception {
+    Map<String, String> mapValue = new LinkedHashMap<>();
+    IntStream.range(0, 200).forEach(i -> mapValue.put("test_key_" + i, "test_value_" + i));
+    EnvDetails envDetails =
+        EnvDetails.builder().id(new ObjectId()).name("test_name").mapValue(mapValue).build();
+    when(mongoTemplate.findAll(eq(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME)))
+        .thenReturn(List.of(envDetails));
+
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                    .header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8")
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andReturn();
+
+    byte[] bytes = mvcResult.getResponse().getContentAsByteArray();
+    EnvDetailsResponse envDetailsResponse;
+    try (GZIPInputStream gzipInputStream = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+      envDetailsResponse = objectMapper().readValue(gzipInputStream, EnvDetailsResponse.class);
+    }
+    assertEquals(mapValue, envDetailsResponse.getEnvDetails().getFirst().getMapValue());
+    assertEquals(bytes.length, mvcResult.getResponse().getContentLength());
+
     mockMvc
         .perform(
             get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0")
                 .with(
                     SecurityMockMvcRequestPostProcessors.httpBasic(
-                        ConstantUtils.AUTH_USR, "invalid_password")))
-        .andExpect(status().isUnauthorized())
-        .andReturn();
+                        ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
   }
 
   @Test
-  void test_Read_Failure_Exception() throws Exception {
+  void test_Read_NotAcceptable() throws Exception {
+    mockMvc
+        .perform(
+            get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                .accept(MediaType.APPLICATION_XML)
+                .with(
+                    SecurityMockMvcRequestPostProcessors.httpBasic(
+                        ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+        .andExpect(status().isNotAcceptable());
+
+    verify(mongoTemplate, never()).findAll(EnvDetails.class, "app_" + TEST_COLLECTION_NAME);
+  }
+
+  @Test
+  void test_Read_Success_Smile() throws Exception {
     when(mongoTemplate.findAll(eq(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME)))
-        .thenThrow(new MongoInternalException("Mongo Internal Exception"));
+        .thenReturn(List.of(ENV_DETAILS_IN_RESPONSE));
 
     MvcResult mvcResult =
         mockMvc
             .perform(
                 get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                    .accept("application/x-jackson-smile")
                     .with(
                         SecurityMockMvcRequestPostProcessors.httpBasic(
                             ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
-            .andExpect(status().isInternalServerError())
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/x-jackson-smile"))
             .andReturn();
 
-    EnvDetailsResponse envDetailsResponse =
-        objectMapper()
-            .readValue(mvcResult.getResponse().getContentAsString(), EnvDetailsResponse.class);
+    JsonNode envDetailsResponse =
+        SmileMapper.builder().build().readTree(mvcResult.getResponse().getContentAsByteArray());
 
-    assertNotNull(envDetailsResponse);
-    assertNull(envDetailsResponse.getEnvDetails());
-    assertNotNull(envDetailsResponse.getErrMsg());
-    assertEquals("Read Exception: Mongo Internal Exception", envDetailsResponse.getErrMsg());
+    assertEquals(1, envDetailsResponse.get("envDetails").size());
+    assertEquals(
+        ENV_DETAILS_REQUEST.getName(),
+        envDetailsResponse.get("envDetails").get(0).get("name").asString());
   }
 
   @Test
-  void test_Update_Failure_NotAllowed() throws Exception {
-    String requestBody = objectMapper().writeValueAsString(ENV_DETAILS_REQUEST);
+  void test_Read_Success_Cbor() throws Exception {
+    when(mongoTemplate.findAll(eq(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME)))
+        .thenReturn(List.of(ENV_DETAILS_IN_RESPONSE));
 
     MvcResult mvcResult =
         mockMvc
             .perform(
-                put(String.format("/api/v1/%s/%s", TEST_COLLECTION_NAME, TEST_DOCUMENT_ID))
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .content(requestBody)
+                get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                    .accept(MediaType.APPLICATION_CBOR)
                     .with(
                         SecurityMockMvcRequestPostProcessors.httpBasic(
                             ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
-            .andExpect(status().isMethodNotAllowed())
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
             .andReturn();
 
-    EnvDetailsResponse envDetailsResponse =
-        objectMapper()
-            .readValue(mvcResult.getResponse().getContentAsString(), EnvDetailsResponse.class);
+    JsonNode envDetailsResponse =
+        CBORMapper.builder().build().readTree(mvcResult.getResponse().getContentAsByteArray());
 
-    assertNotNull(envDetailsResponse);
-    assertNull(envDetailsResponse.getEnvDetails());
-    assertNotNull(envDetailsResponse.getErrMsg());
+    assertEquals(1, envDetailsResponse.get("envDetails").size());
     assertEquals(
-        "Update Exception! Update not available!! Delete and Create!!!",
-        envDetailsResponse.getErrMsg());
+        ENV_DETAILS_REQUEST.getName(),
+        envDetailsResponse.get("envDetails").get(0).get("name").asString());
   }
 
   @Test
-  void test_Update_Failure_Unauthorized() throws Exception {
-    String requestBody = objectMapper().writeValueAsString(ENV_DETAILS_REQUEST);
+  void test_Read_Success_Metrics() throws Exception {
+    when(mongoTemplate.getCollectionNames()).thenReturn(Set.of("app_" + TEST_COLLECTION_NAME));
+    appRegistryService.refresh();
 
     mockMvc
         .perform(
-            put(String.format("/api/v1/%s/%s", TEST_COLLECTION_NAME, TEST_DOCUMENT_ID))
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(requestBody)
+            get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
                 .with(
                     SecurityMockMvcRequestPostProcessors.httpBasic(
-                        ConstantUtils.AUTH_USR, "invalid_password")))
-        .andExpect(status().isUnauthorized())
-        .andReturn();
-  }
-
-  @Test
-  void test_Delete_Success() throws Exception {
-    when(mongoTemplate.remove(
-            eq(new Query(Criteria.where("name").is(ENV_DETAILS_REQUEST.getName()))),
-            eq("app_" + TEST_COLLECTION_NAME)))
-        .thenReturn(DeleteResult.acknowledged(1));
-
+                        ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+        .andExpect(status().isOk());
     mockMvc
         .perform(
-            delete(
-                    String.format(
-                        "/api/v1/%s/%s", TEST_COLLECTION_NAME, ENV_DETAILS_REQUEST.getName()))
+            get("/api/v1/unknown_app")
                 .with(
                     SecurityMockMvcRequestPostProcessors.httpBasic(
                         ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
-        .andExpect(status().isOk())
-        .andReturn();
+        .andExpect(status().isOk());
+
+    Timer appTimer =
+        meterRegistry
+            .find("envsvc.requests")
+            .tag("endpoint", "/api/v1/{appName}")
+            .tag("status", "200")
+            .tag("appName", TEST_COLLECTION_NAME)
+            .timer();
+    Timer otherTimer =
+        meterRegistry
+            .find("envsvc.requests")
+            .tag("endpoint", "/api/v1/{appName}")
+            .tag("appName", "other")
+            .timer();
+    assertNotNull(appTimer);
+    assertNotNull(otherTimer);
+    assertTrue(appTimer.count() > 0);
+    assertTrue(otherTimer.count() > 0);
   }
 
   @Test
-  void test_Delete_Failure_Unauthorized() throws Exception {
-    mockMvc
-        .perform(
-            delete(
-                    String.format(
-                        "/api/v1/%s/%s", TEST_COLLECTION_NAME, ENV_DETAILS_REQUEST.getName()))
-                .with(
-                    SecurityMockMvcRequestPostProcessors.httpBasic(
-                        ConstantUtils.AUTH_USR, "invalid_password")))
-        .andExpect(status().isUnauthorized())
-        .andReturn();
+  void test_Read_Success_Cached() throws Exception {
+    when(mongoTemplate.findAll(eq(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME)))
+        .thenReturn(List.of(ENV_DETAILS_IN_RESPONSE));
+
+    for (int i = 0; i < 2; i++) {
+      mockMvc
+          .perform(
+              get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                  .with(
+                      SecurityMockMvcRequestPostProcessors.httpBasic(
+                          ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+          .andExpect(status().isOk())
+          .andReturn();
+    }
+
+    verify(mongoTemplate, times(1)).findAll(EnvDetails.class, "app_" + TEST_COLLECTION_NAME);
   }
 
   @Test
-  void test_Delete_Failure_Exception() throws Exception {
-    when(mongoTemplate.remove(
-            eq(new Query(Criteria.where("name").is(ENV_DETAILS_REQUEST.getName()))),
-            eq("app_" + TEST_COLLECTION_NAME)))
-        .thenThrow(new MongoInternalException("Mongo Internal Exception"));
+  void test_Read_Success_NotModified() throws Exception {
+    when(mongoTemplate.findAll(eq(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME)))
+        .thenReturn(List.of(ENV_DETAILS_IN_RESPONSE));
 
     MvcResult mvcResult =
         mockMvc
             .perform(
-                delete(
-                        String.format(
-                            "/api/v1/%s/%s", TEST_COLLECTION_NAME, ENV_DETAILS_REQUEST.getName()))
+                get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
                     .with(
                         SecurityMockMvcRequestPostProcessors.httpBasic(
                             ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
-            .andExpect(status().isInternalServerError())
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn();
+
+    String eTag = mvcResult.getResponse().getHeader(HttpHeaders.ETAG);
+    assertTrue(eTag.startsWith("W/"));
+
+    mvcResult =
+        mockMvc
+            .perform(
+                get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                    .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, eTag))
+            .andReturn();
+
+    assertEquals(0, mvcResult.getResponse().getContentLength());
+    verify(mongoTemplate, times(1)).findAll(EnvDetails.class, "app_" + TEST_COLLECTION_NAME);
+  }
+
+  @Test
+  void test_Read_Success_ModifiedOnSameValuesUpdate() throws Exception {
+    EnvDetails envDetailsUpdated =
+        EnvDetails.builder()
+            .id(ENV_DETAILS_IN_RESPONSE.getId())
+            .name(ENV_DETAILS_IN_RESPONSE.getName())
+            .stringValue(ENV_DETAILS_IN_RESPONSE.getStringValue())
+            .listValue(ENV_DETAILS_IN_RESPONSE.getListValue())
+            .mapValue(ENV_DETAILS_IN_RESPONSE.getMapValue())
+            .version(1L)
+            .revision(System.currentTimeMillis())
+            .build();
+    when(mongoTemplate.findAll(eq(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME)))
+        .thenReturn(List.of(ENV_DETAILS_IN_RESPONSE))
+        .thenReturn(List.of(envDetailsUpdated));
+
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(status().isOk())
             .andReturn();
+    String eTag = mvcResult.getResponse().getHeader(HttpHeaders.ETAG);
+    // an update that resends the same values, so only version and revision change
+    envDetailsCacheService.evict(TEST_COLLECTION_NAME);
 
+    mvcResult =
+        mockMvc
+            .perform(
+                get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                    .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    assertNotEquals(eTag, mvcResult.getResponse().getHeader(HttpHeaders.ETAG));
     EnvDetailsResponse envDetailsResponse =
         objectMapper()
             .readValue(mvcResult.getResponse().getContentAsString(), EnvDetailsResponse.class);
+    assertEquals(1L, envDetailsResponse.getEnvDetails().getFirst().getVersion());
+  }
 
-    assertNotNull(envDetailsResponse);
-    assertNull(envDetailsResponse.getEnvDetails());
-    assertNotNull(envDetailsResponse.getErrMsg());
-    assertEquals("Delete Exception: Mongo Internal Exception", envDetailsResponse.getErrMsg());
+  @Test
+  void test_Read_Success_CacheEvictedOnDelete() throws Exception {
+    when(mongoTemplate.findAll(eq(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME)))
+        .thenReturn(List.of(ENV_DETAILS_IN_RESPONSE));
+    when(mongoTemplate.remove(any(Query.class), eq("app_" + TEST_COLLECTION_NAME)))
+        .thenReturn(DeleteResult.acknowledged(1));
+
+    mockMvc
+        .perform(
+            get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                .with(
+                    SecurityMockMvcRequestPostProcessors.httpBasic(
+                        ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+        .andExpect(status().isOk())
+        .andReturn();
+    mockMvc
+        .perform(
+            delete(
+                    String.format(
+                        "/api/v1/%s/%s", TEST_COLLECTION_NAME, ENV_DETAILS_REQUEST.getName()))
+                .with(
+                    SecurityMockMvcRequestPostProcessors.httpBasic(
+                        ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+        .andExpect(status().isOk())
+        .andReturn();
+    mockMvc
+        .perform(
+            get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                .with(
+                    SecurityMockMvcRequestPostProcessors.httpBasic(
+                        ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    verify(mongoTemplate, times(2)).findAll(EnvDetails.class, "app_" + TEST_COLLECTION_NAME);
+  }
+
+  @Test
+  void test_ReadChanges_Success() throws Exception {
+    long revision = System.currentTimeMillis() - Duration.ofMinutes(2).toMillis();
+    when(mongoTemplate.findById(
+            eq(TEST_COLLECTION_NAME), eq(Document.class), eq("envdetails_revisions")))
+        .thenReturn(new Document("revision", revision));
+    when(mongoTemplate.find(
+            any(Query.class), eq(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME)))
+        .thenReturn(List.of(ENV_DETAILS_IN_RESPONSE));
+    when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("envdetails_tombstones")))
+        .thenReturn(List.of(new Document("name", "deleted_name")));
+
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                get(String.format("/api/v1/%s/changes", TEST_COLLECTION_NAME))
+                    .param("since", String.valueOf(revision - 1000))
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    EnvDetailsChangesResponse envDetailsChangesResponse =
+        objectMapper()
+            .readValue(
+                mvcResult.getResponse().getContentAsString(), EnvDetailsChangesResponse.class);
+
+    assertNotNull(envDetailsChangesResponse);
+    assertNull(envDetailsChangesResponse.getErrMsg());
+    assertEquals(revision, envDetailsChangesResponse.getRevision());
+    assertFalse(envDetailsChangesResponse.isResyncRequired());
+    assertEquals(1, envDetailsChangesResponse.getUpserts().size());
+    assertEquals(
+        ENV_DETAILS_REQUEST.getName(), envDetailsChangesResponse.getUpserts().getFirst().getName());
+    assertEquals(List.of("deleted_name"), envDetailsChangesResponse.getDeletions());
+    verify(mongoTemplate, never()).findAll(any(), anyString());
+  }
+
+  @Test
+  void test_ReadChanges_Success_WritesLanding() throws Exception {
+    long revision = System.currentTimeMillis();
+    when(mongoTemplate.findById(
+            eq(TEST_COLLECTION_NAME), eq(Document.class), eq("envdetails_revisions")))
+        .thenReturn(new Document("revision", revision));
+    when(mongoTemplate.find(
+            any(Query.class), eq(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME)))
+        .thenReturn(List.of(ENV_DETAILS_IN_RESPONSE));
+
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                get(String.format("/api/v1/%s/changes", TEST_COLLECTION_NAME))
+                    .param("since", String.valueOf(revision))
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    EnvDetailsChangesResponse envDetailsChangesResponse =
+        objectMapper()
+            .readValue(
+                mvcResult.getResponse().getContentAsString(), EnvDetailsChangesResponse.class);
+
+    // writes that started before the revision may still land, so the changes are up to before it
+    assertFalse(envDetailsChangesResponse.isResyncRequired());
+    assertTrue(envDetailsChangesResponse.getRevision() < revision);
+    assertEquals(1, envDetailsChangesResponse.getUpserts().size());
+  }
+
+  @Test
+  void test_ReadChanges_Success_ResyncRequired() throws Exception {
+    when(mongoTemplate.findById(
+            eq(TEST_COLLECTION_NAME), eq(Document.class), eq("envdetails_revisions")))
+        .thenReturn(new Document("revision", System.currentTimeMillis()));
+
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                get(String.format("/api/v1/%s/changes", TEST_COLLECTION_NAME))
+                    .param("since", "1")
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    EnvDetailsChangesResponse envDetailsChangesResponse =
+        objectMapper()
+            .readValue(
+                mvcResult.getResponse().getContentAsString(), EnvDetailsChangesResponse.class);
+
+    assertTrue(envDetailsChangesResponse.isResyncRequired());
+    assertTrue(envDetailsChangesResponse.getUpserts().isEmpty());
+    verify(mongoTemplate, never()).find(any(Query.class), any(), anyString());
+  }
+
+  @Test
+  void test_ReadChanges_Success_UpToDate_AfterRetention() throws Exception {
+    long revision = System.currentTimeMillis() - Duration.ofDays(8).toMillis();
+    when(mongoTemplate.findById(
+            eq(TEST_COLLECTION_NAME), eq(Document.class), eq("envdetails_revisions")))
+        .thenReturn(new Document("revision", revision));
+
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                get(String.format("/api/v1/%s/changes", TEST_COLLECTION_NAME))
+                    .param("since", String.valueOf(revision))
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    EnvDetailsChangesResponse envDetailsChangesResponse =
+        objectMapper()
+            .readValue(
+                mvcResult.getResponse().getContentAsString(), EnvDetailsChangesResponse.class);
+
+    assertFalse(envDetailsChangesResponse.isResyncRequired());
+    assertEquals(revision, envDetailsChangesResponse.getRevision());
+    assertTrue(envDetailsChangesResponse.getUpserts().isEmpty());
+    assertTrue(envDetailsChangesResponse.getDeletions().isEmpty());
+    verify(mongoTemplate, never()).find(any(Query.class), any(), anyString());
+  }
+
+  @Test
+  void test_ReadChanges_Failure_ValidationError() throws Exception {
+    mockMvc
+        .perform(
+            get(String.format("/api/v1/%s/changes", TEST_COLLECTION_NAME))
+                .param("since", "-1")
+                .with(
+                    SecurityMockMvcRequestPostProcessors.httpBasic(
+                        ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+        .andExpect(status().isBadRequest())
+        .andReturn();
+  }
+
+  @Test
+  void test_ReadStream_Success() throws Exception {
+    when(mongoTemplate.stream(
+            any(Query.class), eq(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME)))
+        .thenReturn(Stream.of(ENV_DETAILS_IN_RESPONSE, ENV_DETAILS_IN_RESPONSE));
+
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                    .accept(MediaType.APPLICATION_NDJSON)
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mvcResult =
+        mockMvc
+            .perform(asyncDispatch(mvcResult))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andReturn();
+
+    String[] lines = mvcResult.getResponse().getContentAsString().split("\n");
+    assertEquals(2, lines.length);
+    assertEquals(
+        ENV_DETAILS_REQUEST.getName(),
+        objectMapper().readValue(lines[0], EnvDetails.class).getName());
+    verify(mongoTemplate, never()).findAll(any(), anyString());
+  }
+
+  @Test
+  void test_ReadStream_Failure_Exception() throws Exception {
+    when(mongoTemplate.stream(
+            any(Query.class), eq(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME)))
+        .thenThrow(new MongoInternalException("Mongo Internal Exception"));
+
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                    .accept(MediaType.APPLICATION_NDJSON)
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mvcResult =
+        mockMvc
+            .perform(asyncDispatch(mvcResult))
+            .andExpect(status().isInternalServerError())
+            .andReturn();
+
+    EnvDetailsResponse envDetailsResponse =
+        objectMapper()
+            .readValue(mvcResult.getResponse().getContentAsString(), EnvDetailsResponse.class);
+
+    assertNotNull(envDetailsResponse);
+    assertNull(envDetailsResponse.getEnvDetails());
+    assertEquals("Read Stream Exception: Mongo Internal Exception", envDetailsResponse.getErrMsg());
+  }
+
+  @Test
+  void test_Watch_Success() throws Exception {
+    when(mongoTemplate.findAll(eq(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME)))
+        .thenReturn(List.of(ENV_DETAILS_IN_RESPONSE));
+
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                get(String.format("/api/v1/%s/watch", TEST_COLLECTION_NAME))
+                    .accept(MediaType.TEXT_EVENT_STREAM)
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    String content = mvcResult.getResponse().getContentAsString();
+    assertTrue(content.contains("event:snapshot"));
+    assertTrue(content.contains(ENV_DETAILS_REQUEST.getName()));
+
+    String lastEventId = content.lines().filter(line -> line.startsWith("id:")).findFirst().get();
+    mvcResult =
+        mockMvc
+            .perform(
+                get(String.format("/api/v1/%s/watch", TEST_COLLECTION_NAME))
+                    .accept(MediaType.TEXT_EVENT_STREAM)
+                    .header("Last-Event-ID", lastEventId.substring("id:".length()))
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    assertTrue(mvcResult.getResponse().getContentAsString().isEmpty());
+  }
+
+  @Test
+  void test_ReadByName_Success() throws Exception {
+    when(mongoTemplate.findOne(
+            eq(new Query(Criteria.where("name").is(ENV_DETAILS_REQUEST.getName()))),
+            eq(EnvDetails.class),
+            eq("app_" + TEST_COLLECTION_NAME)))
+        .thenReturn(ENV_DETAILS_IN_RESPONSE);
+
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                get(String.format(
+                        "/api/v1/%s/%s", TEST_COLLECTION_NAME, ENV_DETAILS_REQUEST.getName()))
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(status().isOk())
+            // documents without a version are version 0, which If-Match accepts
+            .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+            .andReturn();
+
+    EnvDetailsResponse envDetailsResponse =
+        objectMapper()
+            .readValue(mvcResult.getResponse().getContentAsString(), EnvDetailsResponse.class);
+
+    assertNotNull(envDetailsResponse);
+    assertNull(envDetailsResponse.getErrMsg());
+    assertEquals(1, envDetailsResponse.getEnvDetails().size());
+    assertEquals(
+        ENV_DETAILS_REQUEST.getName(), envDetailsResponse.getEnvDetails().getFirst().getName());
+    verify(mongoTemplate, never()).findAll(any(), anyString());
+  }
+
+  @Test
+  void test_ReadByName_Success_Fields() throws Exception {
+    when(mongoTemplate.findOne(
+            any(Query.class), eq(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME)))
+        .thenReturn(ENV_DETAILS_IN_RESPONSE);
+
+    mockMvc
+        .perform(
+            get(String.format("/api/v1/%s/%s", TEST_COLLECTION_NAME, ENV_DETAILS_REQUEST.getName()))
+                .param("fields", "stringValue")
+                .with(
+                    SecurityMockMvcRequestPostProcessors.httpBasic(
+                        ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+  }
+
+  @Test
+  void test_ReadByName_Failure_NotFound() throws Exception {
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                get(String.format("/api/v1/%s/%s", TEST_COLLECTION_NAME, "missing_name"))
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(status().isNotFound())
+            .andReturn();
+
+    EnvDetailsResponse envDetailsResponse =
+        objectMapper()
+            .readValue(mvcResult.getResponse().getContentAsString(), EnvDetailsResponse.class);
+
+    assertNotNull(envDetailsResponse);
+    assertNull(envDetailsResponse.getEnvDetails());
+    assertEquals("Env Details Not Found", envDetailsResponse.getErrMsg());
+  }
+
+  @Test
+  void test_ReadByNames_Success() throws Exception {
+    Query query = new Query(Criteria.where("name").in(List.of("name_1", "name_2")));
+    query.fields().include("name").include("stringValue");
+    when(mongoTemplate.find(eq(query), eq(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME)))
+        .thenReturn(List.of(ENV_DETAILS_IN_RESPONSE));
+
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                    .param("names", "name_1,name_2")
+                    .param("fields", "stringValue")
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    EnvDetailsResponse envDetailsResponse =
+        objectMapper()
+            .readValue(mvcResult.getResponse().getContentAsString(), EnvDetailsResponse.class);
+
+    assertNotNull(envDetailsResponse);
+    assertNull(envDetailsResponse.getErrMsg());
+    assertEquals(1, envDetailsResponse.getEnvDetails().size());
+    verify(mongoTemplate, never()).findAll(any(), anyString());
+  }
+
+  @Test
+  void test_ReadByNames_Failure_ValidationError() throws Exception {
+    mockMvc
+        .perform(
+            get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                .param("names", "name_1")
+                .param("fields", "id")
+                .with(
+                    SecurityMockMvcRequestPostProcessors.httpBasic(
+                        ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+        .andExpect(status().isBadRequest())
+        .andReturn();
+  }
+
+  @Test
+  void test_ReadApps_Success() throws Exception {
+    when(mongoTemplate.findAll(eq(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME)))
+        .thenReturn(List.of(ENV_DETAILS_IN_RESPONSE));
+    when(mongoTemplate.findAll(eq(EnvDetails.class), eq("app_shared"))).thenReturn(List.of());
+
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                get("/api/v1")
+                    .param("apps", TEST_COLLECTION_NAME + ",shared," + TEST_COLLECTION_NAME)
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    EnvDetailsAppsResponse envDetailsAppsResponse =
+        objectMapper()
+            .readValue(mvcResult.getResponse().getContentAsString(), EnvDetailsAppsResponse.class);
+
+    assertNotNull(envDetailsAppsResponse);
+    assertNull(envDetailsAppsResponse.getErrMsg());
+    assertEquals(2, envDetailsAppsResponse.getAppEnvDetails().size());
+    assertEquals(
+        ENV_DETAILS_REQUEST.getName(),
+        envDetailsAppsResponse.getAppEnvDetails().get(TEST_COLLECTION_NAME).getFirst().getName());
+    assertTrue(envDetailsAppsResponse.getAppEnvDetails().get("shared").isEmpty());
+  }
+
+  @Test
+  void test_ReadApps_Failure_ValidationError() throws Exception {
+    mockMvc
+        .perform(
+            get("/api/v1")
+                .param("apps", "1,2,3,4,5,6,7,8,9,10,11")
+                .with(
+                    SecurityMockMvcRequestPostProcessors.httpBasic(
+                        ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+        .andExpect(status().isBadRequest())
+        .andReturn();
+
+    verify(mongoTemplate, never()).findAll(any(), anyString());
+  }
+
+  @Test
+  void test_ReadApps_Failure_Exception() throws Exception {
+    when(mongoTemplate.findAll(eq(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME)))
+        .thenThrow(new MongoInternalException("Mongo Internal Exception"));
+
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                get("/api/v1")
+                    .param("apps", TEST_COLLECTION_NAME)
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(status().isInternalServerError())
+            .andReturn();
+
+    EnvDetailsAppsResponse envDetailsAppsResponse =
+        objectMapper()
+            .readValue(mvcResult.getResponse().getContentAsString(), EnvDetailsAppsResponse.class);
+
+    assertNotNull(envDetailsAppsResponse);
+    assertNull(envDetailsAppsResponse.getAppEnvDetails());
+    assertEquals(
+        "Read Apps Exception: Mongo Internal Exception", envDetailsAppsResponse.getErrMsg());
+  }
+
+  @Test
+  void test_Read_Success_LastKnownGood() throws Exception {
+    when(mongoTemplate.findAll(eq(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME)))
+        .thenReturn(List.of(ENV_DETAILS_IN_RESPONSE))
+        .thenThrow(new MongoInternalException("Mongo Internal Exception"));
+
+    mockMvc
+        .perform(
+            get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                .with(
+                    SecurityMockMvcRequestPostProcessors.httpBasic(
+                        ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist(ConstantUtils.HEADER_ENV_DETAILS_STALE));
+    envDetailsSnapshotService.update();
+    cacheManager.getCache(ConstantUtils.CACHE_ENV_DETAILS).clear();
+
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(status().isOk())
+            .andExpect(
+                header().string(ConstantUtils.HEADER_ENV_DETAILS_STALE, TEST_COLLECTION_NAME))
+            .andReturn();
+
+    EnvDetailsResponse envDetailsResponse =
+        objectMapper()
+            .readValue(mvcResult.getResponse().getContentAsString(), EnvDetailsResponse.class);
+    assertEquals(1, envDetailsResponse.getEnvDetails().size());
+    assertEquals(
+        ENV_DETAILS_REQUEST.getName(), envDetailsResponse.getEnvDetails().getFirst().getName());
+
+    mockMvc
+        .perform(
+            get("/api/v1")
+                .param("apps", TEST_COLLECTION_NAME)
+                .with(
+                    SecurityMockMvcRequestPostProcessors.httpBasic(
+                        ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+        .andExpect(status().isOk())
+        .andExpect(header().string(ConstantUtils.HEADER_ENV_DETAILS_STALE, TEST_COLLECTION_NAME));
+  }
+
+  @Test
+  void test_Read_Failure_Unauthorized() throws Exception {
+    mockMvc
+        .perform(
+            get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                .with(
+                    SecurityMockMvcRequestPostProcessors.httpBasic(
+                        ConstantUtils.AUTH_USR, "invalid_password")))
+        .andExpect(status().isUnauthorized())
+        .andReturn();
+  }
+
+  @Test
+  void test_Read_Success_ApiKey() throws Exception {
+    when(mongoTemplate.findAll(eq(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME)))
+        .thenReturn(List.of(ENV_DETAILS_IN_RESPONSE));
+
+    mockMvc
+        .perform(
+            get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                .header("X-API-Key", "test-client.test_secret"))
+        .andExpect(status().isOk());
+    mockMvc
+        .perform(
+            get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                .header("X-API-Key", "scoped-client.test_secret"))
+        .andExpect(status().isOk());
+
+    // verified keys are cached, so the same key does not go through the password encoder again
+    assertSame(
+        apiKeyService.authenticate("test-client.test_secret"),
+        apiKeyService.authenticate("test-client.test_secret"));
+  }
+
+  @Test
+  void test_ReadStream_Success_ApiKey() throws Exception {
+    when(mongoTemplate.stream(
+            any(Query.class), eq(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME)))
+        .thenReturn(Stream.of(ENV_DETAILS_IN_RESPONSE));
+
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                    .accept(MediaType.APPLICATION_NDJSON)
+                    .header("X-API-Key", "scoped-client.test_secret"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mvcResult =
+        mockMvc
+            .perform(asyncDispatch(mvcResult))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andReturn();
+
+    assertEquals(
+        ENV_DETAILS_REQUEST.getName(),
+        objectMapper()
+            .readValue(mvcResult.getResponse().getContentAsString().trim(), EnvDetails.class)
+            .getName());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void test_Watch_Success_ApiKey() throws Exception {
+    when(mongoTemplate.findAll(eq(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME)))
+        .thenReturn(List.of(ENV_DETAILS_IN_RESPONSE));
+
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                get(String.format("/api/v1/%s/watch", TEST_COLLECTION_NAME))
+                    .accept(MediaType.TEXT_EVENT_STREAM)
+                    .header("X-API-Key", "scoped-client.test_secret"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    assertTrue(mvcResult.getResponse().getContentAsString().contains("event:snapshot"));
+
+    // the server closes the watch connections of the app, as on a timeout
+    ((Map<String, Set<?>>) ReflectionTestUtils.getField(envDetailsWatchService, "appWatchers"))
+        .get(TEST_COLLECTION_NAME)
+        .forEach(
+            watcher ->
+                ((SseEmitter) ReflectionTestUtils.getField(watcher, "sseEmitter")).complete());
+
+    mockMvc.perform(asyncDispatch(mvcResult)).andExpect(status().isOk());
+  }
+
+  @Test
+  void test_Read_Success_StaleUntilSnapshotFileReloaded(@TempDir final Path directory)
+      throws Exception {
+    when(mongoTemplate.findAll(eq(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME)))
+        .thenReturn(List.of(ENV_DETAILS_IN_RESPONSE));
+    mockMvc
+        .perform(
+            get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                .with(
+                    SecurityMockMvcRequestPostProcessors.httpBasic(
+                        ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+        .andExpect(status().isOk());
+
+    envServiceProperties.getSnapshot().setFile(directory.resolve("snapshot.json.gz").toString());
+    try {
+      envDetailsSnapshotService.update();
+      ReflectionTestUtils.invokeMethod(envDetailsSnapshotService, "takeSnapshot");
+      // as on a restart, the read cache is filled from the file
+      envDetailsSnapshotService.invalidate();
+      cacheManager.getCache(ConstantUtils.CACHE_ENV_DETAILS).clear();
+      ReflectionTestUtils.invokeMethod(envDetailsSnapshotService, "loadSnapshot");
+    } finally {
+      envServiceProperties.getSnapshot().setFile("");
+    }
+
+    mockMvc
+        .perform(
+            get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                .with(
+                    SecurityMockMvcRequestPostProcessors.httpBasic(
+                        ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+        .andExpect(status().isOk())
+        .andExpect(header().string(ConstantUtils.HEADER_ENV_DETAILS_STALE, TEST_COLLECTION_NAME));
+    verify(mongoTemplate, times(1)).findAll(EnvDetails.class, "app_" + TEST_COLLECTION_NAME);
+
+    envDetailsCacheService.refresh(TEST_COLLECTION_NAME);
+    mockMvc
+        .perform(
+            get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                .with(
+                    SecurityMockMvcRequestPostProcessors.httpBasic(
+                        ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist(ConstantUtils.HEADER_ENV_DETAILS_STALE));
+  }
+
+  @Test
+  void test_Read_Failure_ApiKeyInvalid() throws Exception {
+    mockMvc
+        .perform(
+            get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                .header("X-API-Key", "test-client.invalid_secret"))
+        .andExpect(status().isUnauthorized());
+    mockMvc
+        .perform(
+            get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                .header("X-API-Key", "unknown-client.test_secret"))
+        .andExpect(status().isUnauthorized());
+
+    verify(mongoTemplate, never()).findAll(eq(EnvDetails.class), anyString());
+  }
+
+  @Test
+  void test_Read_Failure_ApiKeyScope() throws Exception {
+    mockMvc
+        .perform(get("/api/v1/other_app").header("X-API-Key", "scoped-client.test_secret"))
+        .andExpect(status().isForbidden());
+    mockMvc
+        .perform(
+            get("/api/v1")
+                .param("apps", TEST_COLLECTION_NAME + ",other_app")
+                .header("X-API-Key", "scoped-client.test_secret"))
+        .andExpect(status().isForbidden());
+    mockMvc
+        .perform(get("/api/v1/appNames").header("X-API-Key", "scoped-client.test_secret"))
+        .andExpect(status().isForbidden());
+
+    verify(mongoTemplate, never()).findAll(eq(EnvDetails.class), anyString());
+  }
+
+  @Test
+  void test_ReadApps_Failure_ApiKeyScope_RepeatedParam() throws Exception {
+    mockMvc
+        .perform(
+            get("/api/v1")
+                .param("apps", TEST_COLLECTION_NAME, "other_app")
+                .header("X-API-Key", "scoped-client.test_secret"))
+        .andExpect(status().isForbidden());
+
+    verify(mongoTemplate, never()).findAll(eq(EnvDetails.class), anyString());
+  }
+
+  @Test
+  void test_Read_Failure_Exception() throws Exception {
+    when(mongoTemplate.findAll(eq(EnvDetails.class), eq("app_" + TEST_COLLECTION_NAME)))
+        .thenThrow(new MongoInternalException("Mongo Internal Exception"));
+
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                get(String.format("/api/v1/%s", TEST_COLLECTION_NAME))
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(status().isInternalServerError())
+            .andReturn();
+
+    EnvDetailsResponse envDetailsResponse =
+        objectMapper()
+            .readValue(mvcResult.getResponse().getContentAsString(), EnvDetailsResponse.class);
+
+    assertNotNull(envDetailsResponse);
+    assertNull(envDetailsResponse.getEnvDetails());
+    assertNotNull(envDetailsResponse.getErrMsg());
+    assertEquals("Read Exception: Mongo Internal Exception", envDetailsResponse.getErrMsg());
+  }
+
+  @Test
+  void test_Update_Success() throws Exception {
+    EnvDetails envDetailsUpdated =
+        EnvDetails.builder()
+            .id(ENV_DETAILS_IN_RESPONSE.getId())
+            .name(ENV_DETAILS_REQUEST.getName())
+            .stringValue("updated_string_value")
+            .version(2L)
+            .build();
+    when(mongoTemplate.findAndModify(
+            eq(
+                new Query(
+                    Criteria.where("name")
+                        .is(ENV_DETAILS_REQUEST.getName())
+                        .and("version")
+                        .is(1L))),
+            any(Update.class),
+            any(FindAndModifyOptions.class),
+            eq(EnvDetails.class),
+            eq("app_" + TEST_COLLECTION_NAME)))
+        .thenReturn(envDetailsUpdated);
+
+    String requestBody =
+        objectMapper()
+            .writeValueAsString(EnvDetails.builder().stringValue("updated_string_value").build());
+
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                put(String.format(
+                        "/api/v1/%s/%s", TEST_COLLECTION_NAME, ENV_DETAILS_REQUEST.getName()))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(requestBody)
+                    .header(HttpHeaders.IF_MATCH, "\"1\"")
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+            .andReturn();
+
+    EnvDetailsResponse envDetailsResponse =
+        objectMapper()
+            .readValue(mvcResult.getResponse().getContentAsString(), EnvDetailsResponse.class);
+
+    assertNotNull(envDetailsResponse);
+    assertNull(envDetailsResponse.getErrMsg());
+    assertEquals(
+        "updated_string_value", envDetailsResponse.getEnvDetails().getFirst().getStringValue());
+    verify(mongoTemplate, never()).remove(any(Query.class), anyString());
+    verify(mongoTemplate, never()).save(any(EnvDetails.class), anyString());
+    verify(mongoTemplate, never()).findById(any(), any(), eq("envdetails_revisions"));
+    verify(mongoTemplate)
+        .upsert(
+            eq(new Query(Criteria.where("_id").is(TEST_COLLECTION_NAME))),
+            any(Update.class),
+            eq("envdetails_revisions"));
+  }
+
+  @Test
+  void test_Update_Failure_NotFound() throws Exception {
+    String requestBody = objectMapper().writeValueAsString(ENV_DETAILS_REQUEST);
+
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                put(String.format(
+                        "/api/v1/%s/%s", TEST_COLLECTION_NAME, ENV_DETAILS_REQUEST.getName()))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(requestBody)
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(status().isNotFound())
+            .andReturn();
+
+    EnvDetailsResponse envDetailsResponse =
+        objectMapper()
+            .readValue(mvcResult.getResponse().getContentAsString(), EnvDetailsResponse.class);
+
+    assertNotNull(envDetailsResponse);
+    assertNull(envDetailsResponse.getEnvDetails());
+    assertEquals("Env Details Not Found", envDetailsResponse.getErrMsg());
+    verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), anyString());
+  }
+
+  @Test
+  void test_Update_Failure_VersionMismatch() throws Exception {
+    when(mongoTemplate.exists(
+            eq(new Query(Criteria.where("name").is(ENV_DETAILS_REQUEST.getName()))),
+            eq("app_" + TEST_COLLECTION_NAME)))
+        .thenReturn(true);
+
+    String requestBody = objectMapper().writeValueAsString(ENV_DETAILS_REQUEST);
+
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                put(String.format(
+                        "/api/v1/%s/%s", TEST_COLLECTION_NAME, ENV_DETAILS_REQUEST.getName()))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(requestBody)
+                    .header(HttpHeaders.IF_MATCH, "\"1\"")
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(status().isPreconditionFailed())
+            .andReturn();
+
+    EnvDetailsResponse envDetailsResponse =
+        objectMapper()
+            .readValue(mvcResult.getResponse().getContentAsString(), EnvDetailsResponse.class);
+
+    assertNotNull(envDetailsResponse);
+    assertNull(envDetailsResponse.getEnvDetails());
+    assertEquals("Env Details Version Mismatch", envDetailsResponse.getErrMsg());
+    verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), anyString());
+  }
+
+  @Test
+  void test_Update_Failure_ValidationError() throws Exception {
+    String requestBody = objectMapper().writeValueAsString(ENV_DETAILS_REQUEST);
+
+    mockMvc
+        .perform(
+            put(String.format("/api/v1/%s/%s", TEST_COLLECTION_NAME, "other_name"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(requestBody)
+                .with(
+                    SecurityMockMvcRequestPostProcessors.httpBasic(
+                        ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+        .andExpect(status().isBadRequest())
+        .andReturn();
+  }
+
+  @Test
+  void test_Update_Failure_Unauthorized() throws Exception {
+    String requestBody = objectMapper().writeValueAsString(ENV_DETAILS_REQUEST);
+
+    mockMvc
+        .perform(
+            put(String.format("/api/v1/%s/%s", TEST_COLLECTION_NAME, TEST_DOCUMENT_ID))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(requestBody)
+                .with(
+                    SecurityMockMvcRequestPostProcessors.httpBasic(
+                        ConstantUtils.AUTH_USR, "invalid_password")))
+        .andExpect(status().isUnauthorized())
+        .andReturn();
+  }
+
+  @Test
+  void test_Delete_Success() throws Exception {
+    when(mongoTemplate.remove(
+            eq(new Query(Criteria.where("name").is(ENV_DETAILS_REQUEST.getName()))),
+            eq("app_" + TEST_COLLECTION_NAME)))
+        .thenReturn(DeleteResult.acknowledged(1));
+
+    mockMvc
+        .perform(
+            delete(
+                    String.format(
+                        "/api/v1/%s/%s", TEST_COLLECTION_NAME, ENV_DETAILS_REQUEST.getName()))
+                .with(
+                    SecurityMockMvcRequestPostProcessors.httpBasic(
+                        ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    verify(mongoTemplate).upsert(any(Query.class), any(Update.class), eq("envdetails_tombstones"));
+    verify(mongoTemplate)
+        .upsert(
+            eq(new Query(Criteria.where("_id").is(TEST_COLLECTION_NAME))),
+            any(Update.class),
+            eq("envdetails_revisions"));
+  }
+
+  @Test
+  void test_Delete_Success_NotFound() throws Exception {
+    when(mongoTemplate.remove(
+            eq(new Query(Criteria.where("name").is(ENV_DETAILS_REQUEST.getName()))),
+            eq("app_" + TEST_COLLECTION_NAME)))
+        .thenReturn(DeleteResult.acknowledged(0));
+
+    mockMvc
+        .perform(
+            delete(
+                    String.format(
+                        "/api/v1/%s/%s", TEST_COLLECTION_NAME, ENV_DETAILS_REQUEST.getName()))
+                .with(
+                    SecurityMockMvcRequestPostProcessors.httpBasic(
+                        ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    // nothing was deleted, so the revision of the app stays
+    verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), anyString());
+  }
+
+  @Test
+  void test_Delete_Failure_Unauthorized() throws Exception {
+    mockMvc
+        .perform(
+            delete(
+                    String.format(
+                        "/api/v1/%s/%s", TEST_COLLECTION_NAME, ENV_DETAILS_REQUEST.getName()))
+                .with(
+                    SecurityMockMvcRequestPostProcessors.httpBasic(
+                        ConstantUtils.AUTH_USR, "invalid_password")))
+        .andExpect(status().isUnauthorized())
+        .andReturn();
+  }
+
+  @Test
+  void test_Delete_Failure_Exception() throws Exception {
+    when(mongoTemplate.remove(
+            eq(new Query(Criteria.where("name").is(ENV_DETAILS_REQUEST.getName()))),
+            eq("app_" + TEST_COLLECTION_NAME)))
+        .thenThrow(new MongoInternalException("Mongo Internal Exception"));
+
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                delete(
+                        String.format(
+                            "/api/v1/%s/%s", TEST_COLLECTION_NAME, ENV_DETAILS_REQUEST.getName()))
+                    .with(
+                        SecurityMockMvcRequestPostProcessors.httpBasic(
+                            ConstantUtils.AUTH_USR, ConstantUtils.AUTH_PWD)))
+            .andExpect(status().isInternalServerError())
+            .andReturn();
+
+    EnvDetailsResponse envDetailsResponse =
+        objectMapper()
+            .readValue(mvcResult.getResponse().getContentAsString(), EnvDetailsResponse.class);
+
+    assertNotNull(envDetailsResponse);
+    assertNull(envDetailsResponse.getEnvDetails());
+    assertNotNull(envDetailsResponse.getErrMsg());
+    assertEquals("Delete Exception: Mongo Internal Exception", envDetailsResponse.getErrMsg());
+  }
+
+  @Test
+  void test_MongoClientSettings() {
+    MongoClientSettings.Builder builder = MongoClientSettings.builder();
+    mongoSettingsCustomizer.customize(builder);
+    MongoClientSettings mongoClientSettings = builder.build();
+
+    assertEquals(100, mongoClientSettings.getConnectionPoolSettings().getMaxSize());
+    assertEquals(
+        5000,
+        mongoClientSettings.getConnectionPoolSettings().getMaxWaitTime(TimeUnit.MILLISECONDS));
+    assertEquals(
+        10000, mongoClientSettings.getSocketSettings().getConnectTimeout(TimeUnit.MILLISECONDS));
+    assertEquals(
+        30000, mongoClientSettings.getSocketSettings().getReadTimeout(TimeUnit.MILLISECONDS));
+    assertEquals(
+        10000,
+        mongoClientSettings.getClusterSettings().getServerSelectionTimeout(TimeUnit.MILLISECONDS));
+    assertEquals(
+        1, mongoClientSettings.getConnectionPoolSettings().getConnectionPoolListeners().size());
+    assertNotNull(meterRegistry.find("envsvc.mongo.pool.wait").timer());
+    assertNotNull(meterRegistry.find("envsvc.mongo.pool.exhausted").counter());
   }
 }
@@ -0,0 +1,236 @@
+package env.service.app.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import env.service.app.config.EnvServiceProperties;
+import env.service.app.model.EnvDetails;
+import env.service.app.model.EnvDetailsBatchStatus;
+import env.service.app.model.EnvDetailsChanges;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DuplicateKeyException;
+
+public class LocalEnvDetailsStoreTest {
+
+  private static final String APP_NAME = "test_app";
+
+  @TempDir private Path directory;
+
+  private LocalEnvDetailsStore localEnvDetailsStore;
+
+  @AfterEach
+  void close() throws Exception {
+    if (localEnvDetailsStore != null) {
+      localEnvDetailsStore.close();
+    }
+  }
+
+  private LocalEnvDetailsStore open(final int compactThreshold) throws Exception {
+    return open(compactThreshold, Duration.ofDays(7));
+  }
+
+  private LocalEnvDetailsStore open(final int compactThreshold, final Duration tombstoneRetention)
+      throws Exception {
+    if (localEnvDetailsStore != null) {
+      localEnvDetailsStore.close();
+    }
+    EnvServiceProperties envServiceProperties = new EnvServiceProperties();
+    envServiceProperties.getStorage().getLocal().setDirectory(directory);
+    envServiceProperties.getStorage().getLocal().setFsync(false);
+    envServiceProperties.getStorage().getLocal().setCompactThreshold(compactThreshold);
+    envServiceProperties.getStorage().setTombstoneRetention(tombstoneRetention);
+    localEnvDetailsStore = new LocalEnvDetailsStore(envServiceProperties);
+    localEnvDetailsStore.open();
+    return localEnvDetailsStore;
+  }
+
+  private EnvDetails envDetails(final String name, final String stringValue) {
+    return EnvDetails.builder()
+        .name(name)
+        .stringValue(stringValue)
+        .listValue(List.of("list_value"))
+        .mapValue(Map.of("map_key", "map_value"))
+        .version(1L)
+        .build();
+  }
+
+  @Test
+  void test_Writes_AreReplayed() throws Exception {
+    LocalEnvDetailsStore store = open(1000);
+    EnvDetails envDetailsCreated = store.create(APP_NAME, envDetails("one", "value_one"));
+    assertNotNull(envDetailsCreated.getId());
+    store.createAll(
+        APP_NAME, List.of(envDetails("two", "value_two"), envDetails("three", "three")));
+    store.update(APP_NAME, envDetails("one", "value_one_updated"), 1L);
+    store.delete(APP_NAME, "three");
+    store.create("other_app", envDetails("one", "value_one"));
+    assertFalse(store.dropIfEmpty("other_app"));
+    store.delete("other_app", "one");
+    assertTrue(store.dropIfEmpty("other_app"));
+
+    store = open(1000);
+
+    assertEquals(List.of(APP_NAME), store.getAppNames());
+    List<EnvDetails> envDetailsList = store.findAll(APP_NAME);
+    assertEquals(2, envDetailsList.size());
+    assertEquals(envDetailsCreated.getId(), envDetailsList.getFirst().getId());
+    assertEquals("value_one_updated", envDetailsList.getFirst().getStringValue());
+    assertEquals(2L, envDetailsList.getFirst().getVersion());
+    assertEquals(Map.of("map_key", "map_value"), envDetailsList.getLast().getMapValue());
+  }
+
+  @Test
+  void test_Writes_AreCompacted() throws Exception {
+    LocalEnvDetailsStore store = open(3);
+    store.create(APP_NAME, envDetails("one", "value_one"));
+    store.create(APP_NAME, envDetails("two", "value_two"));
+    store.delete(APP_NAME, "one");
+
+    assertEquals(0, Files.size(directory.resolve(LocalEnvDetailsStore.LOG_FILE_NAME)));
+    assertTrue(Files.exists(directory.resolve(LocalEnvDetailsStore.SNAPSHOT_FILE_NAME)));
+    store.delete(APP_NAME, "two");
+
+    store = open(3);
+    assertEquals(List.of(APP_NAME), store.getAppNames());
+    assertTrue(store.isEmpty(APP_NAME));
+  }
+
+  @Test
+  void test_IncompleteRecord_IsDropped() throws Exception {
+    open(1000).create(APP_NAME, envDetails("one", "value_one"));
+    Files.write(
+        directory.resolve(LocalEnvDetailsStore.LOG_FILE_NAME),
+        "{\"operation\":\"PUT\",\"appName\"".getBytes(StandardCharsets.UTF_8),
+        StandardOpenOption.APPEND);
+
+    LocalEnvDetailsStore store = open(1000);
+    assertEquals(1, store.findAll(APP_NAME).size());
+    store.create(APP_NAME, envDetails("two", "value_two"));
+
+    assertEquals(2, open(1000).findAll(APP_NAME).size());
+  }
+
+  @Test
+  void test_Create_Duplicate() throws Exception {
+    LocalEnvDetailsStore store = open(1000);
+    store.create(APP_NAME, envDetails("one", "value_one"));
+
+    assertThrows(
+        DuplicateKeyException.class, () -> store.create(APP_NAME, envDetails("one", "value_one")));
+    assertEquals(
+        List.of(EnvDetailsBatchStatus.Status.DUPLICATE, EnvDetailsBatchStatus.Status.SUCCESS),
+        store.createAll(APP_NAME, List.of(envDetails("one", "one"), envDetails("two", "two"))));
+  }
+
+  @Test
+  void test_Update_VersionMismatch() throws Exception {
+    LocalEnvDetailsStore store = open(1000);
+    store.create(APP_NAME, envDetails("one", "value_one"));
+
+    assertNull(store.update(APP_NAME, envDetails("one", "value_one_updated"), 2L));
+    assertNull(store.update(APP_NAME, envDetails("two", "value_two"), null));
+    assertEquals("value_one", store.findByName(APP_NAME, "one", null).getStringValue());
+  }
+
+  @Test
+  void test_FindByName_Fields() throws Exception {
+    LocalEnvDetailsStore store = open(1000);
+    store.create(APP_NAME, envDetails("one", "value_one"));
+
+    EnvDetails envDetails = store.findByName(APP_NAME, "one", List.of("mapValue"));
+    assertEquals("one", envDetails.getName());
+    assertNull(envDetails.getStringValue());
+    assertNull(envDetails.getListValue());
+    assertEquals(Map.of("map_key", "map_value"), envDetails.getMapValue());
+
+    envDetails.getMapValue().put("map_key", "changed");
+    assertEquals("map_value", store.findAll(APP_NAME).getFirst().getMapValue().get("map_key"));
+    assertFalse(store.exists(APP_NAME, "two"));
+  }
+
+  @Test
+  void test_FindChanges() throws Exception {
+    LocalEnvDetailsStore store = open(1000);
+    store.createAll(APP_NAME, List.of(envDetails("one", "value_one"), envDetails("two", "two")));
+    store.create(APP_NAME, envDetails("three", "value_three"));
+    long since = store.findChanges(APP_NAME, 0).revision();
+    store.update(APP_NAME, envDetails("one", "value_one_updated"), null);
+    store.delete(APP_NAME, "two");
+    store.delete(APP_NAME, "three");
+    store.create(APP_NAME, envDetails("three", "value_three_created"));
+
+    EnvDetailsChanges envDetailsChanges = store.findChanges(APP_NAME, since);
+    assertFalse(envDetailsChanges.isResyncRequired());
+    assertTrue(envDetailsChanges.revision() > since);
+    assertEquals(
+        List.of("value_one_updated", "value_three_created"),
+        envDetailsChanges.upserts().stream().map(EnvDetails::getStringValue).toList());
+    assertEquals(List.of("two"), envDetailsChanges.deletions());
+
+    EnvDetailsChanges envDetailsChangesNone =
+        store.findChanges(APP_NAME, envDetailsChanges.revision());
+    assertTrue(envDetailsChangesNone.upserts().isEmpty());
+    assertTrue(envDetailsChangesNone.deletions().isEmpty());
+    assertEquals(2, store.findChanges(APP_NAME, 0).upserts().size());
+  }
+
+  @Test
+  void test_FindChanges_AfterCompaction() throws Exception {
+    LocalEnvDetailsStore store = open(3);
+    store.create(APP_NAME, envDetails("one", "value_one"));
+    long since = store.findChanges(APP_NAME, 0).revision();
+    store.create(APP_NAME, envDetails("two", "value_two"));
+    store.delete(APP_NAME, "one");
+
+    store = open(3);
+    EnvDetailsChanges envDetailsChanges = store.findChanges(APP_NAME, since);
+    assertEquals(
+        List.of("two"), envDetailsChanges.upserts().stream().map(EnvDetails::getName).toList());
+    assertEquals(List.of("one"), envDetailsChanges.deletions());
+    assertTrue(store.create(APP_NAME, envDetails("three", "three")).getRevision() > since);
+  }
+
+  @Test
+  void test_FindChanges_ResyncRequired() throws Exception {
+    LocalEnvDetailsStore store = open(1000);
+    store.create(APP_NAME, envDetails("one", "value_one"));
+    long revision = store.findChanges(APP_NAME, 0).revision();
+
+    // older than the tombstone retention, or newer than the app
+    assertTrue(store.findChanges(APP_NAME, 1).isResyncRequired());
+    EnvDetailsChanges envDetailsChanges = store.findChanges(APP_NAME, revision + 1);
+    assertTrue(envDetailsChanges.isResyncRequired());
+    assertEquals(revision, envDetailsChanges.revision());
+    assertTrue(envDetailsChanges.upserts().isEmpty());
+  }
+
+  @Test
+  void test_FindChanges_UpToDate_AfterRetention() throws Exception {
+    LocalEnvDetailsStore store = open(1000, Duration.ofMillis(50));
+    store.create(APP_NAME, envDetails("one", "value_one"));
+    store.create(APP_NAME, envDetails("two", "value_two"));
+    long revision = store.findChanges(APP_NAME, 0).revision();
+    Thread.sleep(100);
+
+    // not written for longer than the retention, clients holding the revision are up to date
+    EnvDetailsChanges envDetailsChanges = store.findChanges(APP_NAME, revision);
+    assertFalse(envDetailsChanges.isResyncRequired());
+    assertEquals(revision, envDetailsChanges.revision());
+    assertTrue(envDetailsChanges.upserts().isEmpty());
+    assertTrue(envDetailsChanges.deletions().isEmpty());
+    assertTrue(store.findChanges(APP_NAME, revision - 1).isResyncRequired());
+  }
+}
@@ -0,0 +1,300 @@
+package env.service.client;
+
+import env.service.app.model.EnvDetails;
+import env.service.app.model.EnvDetailsResponse;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.deser.std.StdDeserializer;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.module.SimpleModule;
+
+/**
+ * Env details of one app, held in memory and refreshed in the background. Lookups never wait for
+ * the server, they are answered from the last response, also while a refresh is in flight and while
+ * the server cannot be reached, see {@link #isStale()}. Refreshes send the ETag of the last
+ * response in If-None-Match, unchanged env details cost a 304 without a body.
+ *
+ * <pre>{@code
+ * EnvServiceClient envServiceClient =
+ *     EnvServiceClient.builder()
+ *         .baseUrl("http://localhost:8081/envsvc")
+ *         .appName("app_name")
+ *         .apiKey(apiKey)
+ *         .build()
+ *         .start();
+ * String value = envServiceClient.getString("name").orElse("default");
+ * }</pre>
+ */
+@Slf4j
+public class EnvServiceClient implements AutoCloseable {
+
+  private static final String HEADER_API_KEY = "X-API-Key";
+  private static final String HEADER_ENV_DETAILS_STALE = "X-Env-Details-Stale";
+  private static final Duration REFRESH_INTERVAL_DEFAULT = Duration.ofSeconds(30);
+  private static final Duration TIMEOUT_DEFAULT = Duration.ofSeconds(5);
+
+  private final String appName;
+  private final URI uri;
+  private final String authHeaderName;
+  private final String authHeaderValue;
+  private final Duration refreshInterval;
+  private final Duration timeout;
+  private final HttpClient httpClient;
+  private final ScheduledExecutorService scheduledExecutorService;
+  private final JsonMapper jsonMapper = getJsonMapper();
+  private final AtomicReference<CompletableFuture<Void>> refreshInFlight = new AtomicReference<>();
+  private volatile Snapshot snapshot = new Snapshot(Map.of(), null, false);
+  private volatile boolean isRefreshFailed;
+
+  /**
+   * baseUrl includes the context path, e.g. http://localhost:8081/envsvc. Authenticates with apiKey
+   * if given, otherwise with username and password. refreshInterval defaults to 30 seconds and
+   * timeout, of connecting and of each request, to 5 seconds.
+   */
+  @Builder
+  private EnvServiceClient(
+      final String baseUrl,
+      final String appName,
+      final String username,
+      final String password,
+      final String apiKey,
+      final Duration refreshInterval,
+      final Duration timeout) {
+    if (baseUrl == null || baseUrl.isBlank() || appName == null || appName.isBlank()) {
+      throw new IllegalArgumentException("Base Url and App Name are Required");
+    }
+    this.appName = appName;
+    this.uri =
+        URI.create(
+            baseUrl.replaceAll("/+$", "")
+                + "/api/v1/"
+                + URLEncoder.encode(appName, StandardCharsets.UTF_8).replace("+", "%20"));
+    if (apiKey != null) {
+      this.authHeaderName = HEADER_API_KEY;
+      this.authHeaderValue = apiKey;
+    } else if (username != null) {
+      this.authHeaderName = "Authorization";
+      this.authHeaderValue =
+          "Basic "
+              + Base64.getEncoder()
+                  .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+    } else {
+      this.authHeaderName = null;
+      this.authHeaderValue = null;
+    }
+    this.refreshInterval = refreshInterval == null ? REFRESH_INTERVAL_DEFAULT : refreshInterval;
+    this.timeout = timeout == null ? TIMEOUT_DEFAULT : timeout;
+    this.httpClient = HttpClient.newBuilder().connectTimeout(this.timeout).build();
+    this.scheduledExecutorService =
+        Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().daemon().name("env-service-client-" + appName).factory());
+  }
+
+  /**
+   * Loads the env details and schedules their refresh every refreshInterval. Throws {@link
+   * EnvServiceClientException} if the first load fails, the refresh stays scheduled and lookups
+   * return values once the server can be reached.
+   */
+  public EnvServiceClient start() {
+    scheduledExecutorService.scheduleWithFixedDelay(
+        this::refreshScheduled,
+        refreshInterval.toMillis(),
+        refreshInterval.toMillis(),
+        TimeUnit.MILLISECONDS);
+    try {
+      refresh().join();
+    } catch (CompletionException ex) {
+      throw getClientException(ex);
+    }
+    return this;
+  }
+
+  /**
+   * Requests the env details unless a request is already in flight, then the returned future is the
+   * one of that request. Lookups keep returning the current values until it completes.
+   */
+  public CompletableFuture<Void> refresh() {
+    final CompletableFuture<Void> refreshNew = new CompletableFuture<>();
+    final CompletableFuture<Void> refreshCurrent =
+        refreshInFlight.compareAndExchange(null, refreshNew);
+    if (refreshCurrent != null) {
+      return refreshCurrent;
+    }
+
+    final Snapshot snapshotCurrent = snapshot;
+    CompletableFuture<Snapshot> snapshotFuture;
+    try {
+      snapshotFuture =
+          httpClient
+              .sendAsync(getRequest(snapshotCurrent), HttpResponse.BodyHandlers.ofByteArray())
+              .thenApply(response -> getSnapshot(snapshotCurrent, response));
+    } catch (Exception ex) {
+      snapshotFuture = CompletableFuture.failedFuture(ex);
+    }
+    snapshotFuture.whenComplete(
+        (snapshotNew, ex) -> {
+          if (ex == null) {
+            snapshot = snapshotNew;
+            isRefreshFailed = false;
+          } else {
+            isRefreshFailed = true;
+            log.warn("Refresh Env Details Exception: [{}] | [{}]", appName, ex.getMessage());
+          }
+          refreshInFlight.set(null);
+          if (ex == null) {
+            refreshNew.complete(null);
+          } else {
+            refreshNew.completeExceptionally(getClientException(ex));
+          }
+        });
+    return refreshNew;
+  }
+
+  public Optional<String> getString(final String name) {
+    return Optional.ofNullable(snapshot.envDetails().get(name)).map(EnvDetails::getStringValue);
+  }
+
+  public Optional<List<String>> getList(final String name) {
+    return Optional.ofNullable(snapshot.envDetails().get(name))
+        .map(EnvDetails::getListValue)
+        .map(Collections::unmodifiableList);
+  }
+
+  public Optional<Map<String, String>> getMap(final String name) {
+    return Optional.ofNullable(snapshot.envDetails().get(name))
+        .map(EnvDetails::getMapValue)
+        .map(Collections::unmodifiableMap);
+  }
+
+  public Set<String> getNames() {
+    return snapshot.envDetails().keySet();
+  }
+
+  /**
+   * True if the values may be out of date, because the last refresh failed or the server answered
+   * from its own last known good env details.
+   */
+  public boolean isStale() {
+    return isRefreshFailed || snapshot.isStale();
+  }
+
+  @Override
+  public void close() {
+    httpClient.shutdownNow();
+    scheduledExecutorService.shutdownNow();
+  }
+
+  private void refreshScheduled() {
+    try {
+      // waits for the response, so the interval is counted from the end of each refresh
+      refresh().join();
+    } catch (Exception ignored) {
+      // logged by refresh, the current values are kept
+    }
+  }
+
+  private HttpRequest getRequest(final Snapshot snapshotCurrent) {
+    final HttpRequest.Builder builder =
+        HttpRequest.newBuilder(uri).timeout(timeout).header("Accept", "application/json").GET();
+    if (authHeaderName != null) {
+      builder.header(authHeaderName, authHeaderValue);
+    }
+    if (snapshotCurrent.eTag() != null) {
+      builder.header("If-None-Match", snapshotCurrent.eTag());
+    }
+    return builder.build();
+  }
+
+  private Snapshot getSnapshot(
+      final Snapshot snapshotCurrent, final HttpResponse<byte[]> response) {
+    final boolean isStale = response.headers().firstValue(HEADER_ENV_DETAILS_STALE).isPresent();
+    if (response.statusCode() == 304) {
+      return new Snapshot(snapshotCurrent.envDetails(), snapshotCurrent.eTag(), isStale);
+    }
+    if (response.statusCode() != 200) {
+      throw new EnvServiceClientException(
+          "Env Details Response: " + response.statusCode() + getErrMsg(response.body()));
+    }
+
+    final EnvDetailsResponse envDetailsResponse =
+        jsonMapper.readValue(response.body(), EnvDetailsResponse.class);
+    final Map<String, EnvDetails> envDetails = new LinkedHashMap<>();
+    if (envDetailsResponse.getEnvDetails() != null) {
+      envDetailsResponse.getEnvDetails().forEach(ed -> envDetails.put(ed.getName(), ed));
+    }
+    return new Snapshot(
+        Collections.unmodifiableMap(envDetails),
+        response.headers().firstValue("ETag").orElse(null),
+        isStale);
+  }
+
+  private String getErrMsg(final byte[] body) {
+    try {
+      final String errMsg = jsonMapper.readValue(body, EnvDetailsResponse.class).getErrMsg();
+      return errMsg == null ? "" : " " + errMsg;
+    } catch (Exception ignored) {
+      return "";
+    }
+  }
+
+  private EnvServiceClientException getClientException(final Throwable throwable) {
+    final Throwable cause =
+        throwable instanceof CompletionException && throwable.getCause() != null
+            ? throwable.getCause()
+            : throwable;
+    return cause instanceof EnvServiceClientException envServiceClientException
+        ? envServiceClientException
+        : new EnvServiceClientException("Refresh Env Details Exception: " + appName, cause);
+  }
+
+  private static JsonMapper getJsonMapper() {
+    return JsonMapper.builder()
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+        .addModule(new SimpleModule().addDeserializer(ObjectId.class, new ObjectIdDeserializer()))
+        .build();
+  }
+
+  private record Snapshot(Map<String, EnvDetails> envDetails, String eTag, boolean isStale) {}
+
+  // lookups are by name, the id is read if it is a hex string and skipped otherwise
+  private static class ObjectIdDeserializer extends StdDeserializer<ObjectId> {
+    ObjectIdDeserializer() {
+      super(ObjectId.class);
+    }
+
+    @Override
+    public ObjectId deserialize(
+        final JsonParser jsonParser, final DeserializationContext deserializationContext) {
+      if (jsonParser.currentToken() == JsonToken.VALUE_STRING) {
+        return new ObjectId(jsonParser.getValueAsString());
+      }
+      jsonParser.skipChildren();
+      return null;
+    }
+  }
+}
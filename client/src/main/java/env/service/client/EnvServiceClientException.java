@@ -0,0 +1,12 @@
+package env.service.client;
+
+public class EnvServiceClientException extends RuntimeException {
+
+  public EnvServiceClientException(final String message) {
+    super(message);
+  }
+
+  public EnvServiceClientException(final String message, final Throwable cause) {
+    super(message, cause);
+  }
+}
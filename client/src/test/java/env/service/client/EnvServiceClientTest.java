@@ -0,0 +1,208 @@
+package env.service.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class EnvServiceClientTest {
+
+  private static final String APP_NAME = "test_app";
+  private static final String BODY =
+      """
+      {"envDetails":[
+      {"id":{"timestamp":1700000000,"date":"2023-11-14T22:13:20.000+00:00"},"name":"one",
+      "stringValue":"value_one","listValue":["list_one","list_two"],"mapValue":{"map_key":"map_value"},
+      "version":2,"newField":true},
+      {"id":"655400000000000000000000","name":"two","stringValue":"value_two"}]}
+      """;
+
+  private HttpServer httpServer;
+  private final List<Map<String, String>> requestHeaders = new CopyOnWriteArrayList<>();
+  private volatile int status = 200;
+  private volatile String body = BODY;
+  private volatile String eTag = "\"version_one\"";
+  private volatile boolean isStale;
+  private volatile CountDownLatch responseLatch;
+
+  @BeforeEach
+  void startServer() throws Exception {
+    httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    httpServer.createContext("/envsvc/api/v1/" + APP_NAME, this::handle);
+    httpServer.setExecutor(null);
+    httpServer.start();
+  }
+
+  @AfterEach
+  void stopServer() {
+    httpServer.stop(0);
+  }
+
+  private void handle(final HttpExchange httpExchange) throws IOException {
+    requestHeaders.add(
+        Map.of(
+            "If-None-Match",
+            Optional.ofNullable(httpExchange.getRequestHeaders().getFirst("If-None-Match"))
+                .orElse(""),
+            "X-API-Key",
+            Optional.ofNullable(httpExchange.getRequestHeaders().getFirst("X-API-Key"))
+                .orElse("")));
+    try {
+      if (responseLatch != null) {
+        responseLatch.await();
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    if (isStale) {
+      httpExchange.getResponseHeaders().set("X-Env-Details-Stale", APP_NAME);
+    }
+    if (status == 200 && eTag.equals(httpExchange.getRequestHeaders().getFirst("If-None-Match"))) {
+      httpExchange.sendResponseHeaders(304, -1);
+      httpExchange.close();
+      return;
+    }
+    final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    httpExchange.getResponseHeaders().set("Content-Type", "application/json");
+    httpExchange.getResponseHeaders().set("ETag", eTag);
+    httpExchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream outputStream = httpExchange.getResponseBody()) {
+      outputStream.write(bytes);
+    }
+  }
+
+  private EnvServiceClient client() {
+    return EnvServiceClient.builder()
+        .baseUrl("http://127.0.0.1:" + httpServer.getAddress().getPort() + "/envsvc/")
+        .appName(APP_NAME)
+        .apiKey("api_key")
+        .refreshInterval(Duration.ofHours(1))
+        .timeout(Duration.ofSeconds(2))
+        .build();
+  }
+
+  @Test
+  void test_Start_Success() {
+    try (EnvServiceClient envServiceClient = client().start()) {
+      assertEquals(Optional.of("value_one"), envServiceClient.getString("one"));
+      assertEquals(Optional.of(List.of("list_one", "list_two")), envServiceClient.getList("one"));
+      assertEquals(Optional.of(Map.of("map_key", "map_value")), envServiceClient.getMap("one"));
+      assertEquals(Optional.of("value_two"), envServiceClient.getString("two"));
+      assertEquals(Optional.empty(), envServiceClient.getList("two"));
+      assertEquals(Optional.empty(), envServiceClient.getString("three"));
+      assertEquals(Set.of("one", "two"), envServiceClient.getNames());
+      assertFalse(envServiceClient.isStale());
+      assertEquals("api_key", requestHeaders.getFirst().get("X-API-Key"));
+      assertThrows(
+          UnsupportedOperationException.class,
+          () -> envServiceClient.getList("one").orElseThrow().add("list_three"));
+    }
+  }
+
+  @Test
+  void test_Start_Failure() {
+    status = 401;
+    body = "";
+
+    try (EnvServiceClient envServiceClient = client()) {
+      EnvServiceClientException ex =
+          assertThrows(EnvServiceClientException.class, envServiceClient::start);
+      assertEquals("Env Details Response: 401", ex.getMessage());
+      assertTrue(envServiceClient.getNames().isEmpty());
+      assertTrue(envServiceClient.isStale());
+    }
+  }
+
+  @Test
+  void test_Refresh_NotModified() {
+    try (EnvServiceClient envServiceClient = client().start()) {
+      envServiceClient.refresh().join();
+
+      assertEquals("\"version_one\"", requestHeaders.getLast().get("If-None-Match"));
+      assertEquals(Optional.of("value_one"), envServiceClient.getString("one"));
+
+      eTag = "\"version_two\"";
+      body = "{\"envDetails\":[{\"name\":\"one\",\"stringValue\":\"value_one_updated\"}]}";
+      envServiceClient.refresh().join();
+
+      assertEquals(Optional.of("value_one_updated"), envServiceClient.getString("one"));
+      assertEquals(Optional.empty(), envServiceClient.getString("two"));
+    }
+  }
+
+  @Test
+  void test_Refresh_ServerError_ServesStale() {
+    try (EnvServiceClient envServiceClient = client().start()) {
+      status = 500;
+      body = "{\"errMsg\":\"Read Exception: store down\"}";
+      eTag = "\"version_two\"";
+
+      EnvServiceClientException ex =
+          assertThrows(EnvServiceClientException.class, () -> join(envServiceClient.refresh()));
+      assertEquals("Env Details Response: 500 Read Exception: store down", ex.getMessage());
+      assertEquals(Optional.of("value_one"), envServiceClient.getString("one"));
+      assertTrue(envServiceClient.isStale());
+
+      status = 200;
+      envServiceClient.refresh().join();
+      assertFalse(envServiceClient.isStale());
+    }
+  }
+
+  @Test
+  void test_Refresh_StaleHeader() {
+    try (EnvServiceClient envServiceClient = client().start()) {
+      isStale = true;
+      envServiceClient.refresh().join();
+
+      assertTrue(envServiceClient.isStale());
+      assertEquals(Optional.of("value_one"), envServiceClient.getString("one"));
+    }
+  }
+
+  @Test
+  void test_Refresh_InFlight_ServesCurrent() {
+    try (EnvServiceClient envServiceClient = client().start()) {
+      responseLatch = new CountDownLatch(1);
+      eTag = "\"version_two\"";
+      body = "{\"envDetails\":[{\"name\":\"one\",\"stringValue\":\"value_one_updated\"}]}";
+
+      CompletableFuture<Void> refresh = envServiceClient.refresh();
+      assertSame(refresh, envServiceClient.refresh());
+      assertEquals(Optional.of("value_one"), envServiceClient.getString("one"));
+
+      responseLatch.countDown();
+      refresh.join();
+      assertEquals(Optional.of("value_one_updated"), envServiceClient.getString("one"));
+      assertEquals(2, requestHeaders.size());
+    }
+  }
+
+  private void join(final CompletableFuture<Void> future) {
+    try {
+      future.join();
+    } catch (CompletionException ex) {
+      throw (RuntimeException) ex.getCause();
+    }
+  }
+}
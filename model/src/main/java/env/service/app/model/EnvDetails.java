@@ -22,4 +22,8 @@ public class EnvDetails implements Serializable {
   private String stringValue;
   private List<String> listValue;
   private Map<String, String> mapValue;
+  // incremented by every update, missing for documents created before updates were allowed
+  private Long version;
+  // revision of the app when the document was last written, missing for documents written before
+  private Long revision;
 }
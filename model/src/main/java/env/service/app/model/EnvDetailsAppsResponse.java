@@ -0,0 +1,18 @@
+package env.service.app.model;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnvDetailsAppsResponse implements Serializable {
+  private Map<String, List<EnvDetails>> appEnvDetails;
+  private String errMsg;
+}
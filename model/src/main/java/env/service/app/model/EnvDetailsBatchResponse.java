@@ -0,0 +1,17 @@
+package env.service.app.model;
+
+import java.io.Serializable;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnvDetailsBatchResponse implements Serializable {
+  private List<EnvDetailsBatchStatus> envDetailsStatuses;
+  private String errMsg;
+}
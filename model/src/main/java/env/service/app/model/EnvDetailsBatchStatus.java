@@ -0,0 +1,24 @@
+package env.service.app.model;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnvDetailsBatchStatus implements Serializable {
+  private int index;
+  private String name;
+  private Status status;
+
+  public enum Status {
+    SUCCESS,
+    DUPLICATE,
+    INVALID,
+    ERROR
+  }
+}
@@ -0,0 +1,24 @@
+package env.service.app.model;
+
+import java.io.Serializable;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnvDetailsChangesResponse implements Serializable {
+  // revision of the app the changes are up to, the since of the next request
+  private Long revision;
+  // deletions since may be gone, read the whole app again with since=0
+  private boolean resyncRequired;
+  // documents created or updated after since
+  private List<EnvDetails> upserts;
+  // names of documents deleted after since
+  private List<String> deletions;
+  private String errMsg;
+}